@@ -3,6 +3,8 @@ package com.senither.library.database;
 import com.senither.library.SenLibrary;
 import com.senither.library.database.contacts.HostnameDatabase;
 import com.senither.library.database.contacts.StatementContract;
+import com.senither.library.database.pool.PooledConnection;
+import java.sql.Connection;
 import java.sql.DriverManager;
 import java.sql.SQLException;
 import java.sql.Statement;
@@ -40,22 +42,19 @@ public class MySQL extends HostnameDatabase
     }
 
     @Override
-    public boolean open()
+    protected Connection createConnection() throws SQLException
     {
-        try {
-            String url = String.format("jdbc:mysql://%s:%d/%s", getHostname(), getPort(), getDatabase());
-
-            if (initialize()) {
-                connection = DriverManager.getConnection(url, getUsername(), getPassword());
-
-                return true;
-            }
+        // Cursor fetching makes the driver honour the fetch size of a statement, streaming
+        // the result in batches instead of reading the entire result into memory.
+        String url = String.format("jdbc:mysql://%s:%d/%s?useCursorFetch=true", getHostname(), getPort(), getDatabase());
 
-        } catch (SQLException e) {
-            library.getLogger().error("Database - Could not establish a MySQL connection, SQLException: {0}", e.getMessage());
-        }
+        return DriverManager.getConnection(url, getUsername(), getPassword());
+    }
 
-        return false;
+    @Override
+    public int getParameterLimit()
+    {
+        return 65535;
     }
 
     @Override
@@ -74,6 +73,12 @@ public class MySQL extends HostnameDatabase
         }
     }
 
+    @Override
+    public DatabaseType getType()
+    {
+        return DatabaseType.MYSQL;
+    }
+
     @Override
     public StatementContract getStatement(String query) throws SQLException
     {
@@ -89,18 +94,8 @@ public class MySQL extends HostnameDatabase
     @Override
     public boolean isTable(String table)
     {
-        Statement statement;
-
-        try {
-            statement = connection.createStatement();
-        } catch (SQLException e) {
-            library.getLogger().error("Database - Could not create a statement in checkTable(), SQLException: {0}", e.getMessage());
-
-            return false;
-        }
-
-        try {
-            statement.executeQuery(String.format("SELECT * FROM `%s` LIMIT 1;", table));
+        try (PooledConnection connection = borrowConnection(); Statement statement = connection.getConnection().createStatement()) {
+            statement.executeQuery(String.format("SELECT * FROM `%s` LIMIT 1;", table)).close();
 
             return true;
         } catch (SQLException e) {
@@ -119,7 +114,7 @@ public class MySQL extends HostnameDatabase
                 return false;
             }
 
-            try (Statement statement = connection.createStatement()) {
+            try (PooledConnection connection = borrowConnection(); Statement statement = connection.getConnection().createStatement()) {
                 statement.executeUpdate(String.format("DELETE FROM `%s`;", table));
             }
 
@@ -3,6 +3,8 @@ package com.senither.library.database;
 import com.senither.library.SenLibrary;
 import com.senither.library.database.contacts.FilenameDatabase;
 import com.senither.library.database.contacts.StatementContract;
+import com.senither.library.database.pool.PooledConnection;
+import java.sql.Connection;
 import java.sql.DatabaseMetaData;
 import java.sql.DriverManager;
 import java.sql.ResultSet;
@@ -51,27 +53,29 @@ public class SQLite extends FilenameDatabase
     }
 
     @Override
-    public boolean open()
+    protected Connection createConnection() throws SQLException
     {
-        if (initialize()) {
-            try {
-                connection = DriverManager.getConnection("jdbc:sqlite:" + (getFile() == null ? ":memory:" : getFile().getAbsolutePath()));
-
-                return true;
-            } catch (SQLException e) {
-                library.getLogger().error("Database - Could not establish an SQLite connection, SQLException: {0}", e.getMessage());
+        return DriverManager.getConnection("jdbc:sqlite:" + (getFile() == null ? ":memory:" : getFile().getAbsolutePath()));
+    }
 
-                return false;
-            }
-        }
+    @Override
+    protected void queryValidation(StatementContract paramStatement) throws SQLException
+    {
+        // This does nothing for SQLite
+    }
 
+    @Override
+    protected boolean hasBatchKeys()
+    {
+        // The SQLite driver only reports the rowid of the last row
+        // inserted by a batch, instead of one key for every row.
         return false;
     }
 
     @Override
-    protected void queryValidation(StatementContract paramStatement) throws SQLException
+    public DatabaseType getType()
     {
-        // This does nothing for SQLite
+        return DatabaseType.SQLITE;
     }
 
     @Override
@@ -89,8 +93,8 @@ public class SQLite extends FilenameDatabase
     @Override
     public boolean isTable(String table)
     {
-        try {
-            DatabaseMetaData md = connection.getMetaData();
+        try (PooledConnection connection = borrowConnection()) {
+            DatabaseMetaData md = connection.getConnection().getMetaData();
 
             try (ResultSet tables = md.getTables(null, null, table, null)) {
                 if (tables.next()) {
@@ -117,7 +121,7 @@ public class SQLite extends FilenameDatabase
                 return false;
             }
 
-            try (Statement statement = connection.createStatement()) {
+            try (PooledConnection connection = borrowConnection(); Statement statement = connection.getConnection().createStatement()) {
                 statement.executeQuery(String.format("DELETE FROM `%s`;", table));
             }
 
@@ -0,0 +1,124 @@
+package com.senither.library.database;
+
+import com.senither.library.database.pool.PooledConnection;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Savepoint;
+
+public class Transaction
+{
+
+    /**
+     * Represents the pooled connection the transaction is running on.
+     *
+     * @var PooledConnection
+     */
+    private final PooledConnection connection;
+
+    /**
+     * Represents the savepoint the transaction was started from if it's
+     * nested inside another transaction, or null if the transaction
+     * is the outermost transaction on the connection.
+     *
+     * @var Savepoint
+     */
+    private final Savepoint parent;
+
+    /**
+     * Creates a new transaction instance.
+     *
+     * @param connection The connection the transaction is running on.
+     * @param parent     The savepoint of a nested transaction, or null.
+     */
+    public Transaction(PooledConnection connection, Savepoint parent)
+    {
+        this.connection = connection;
+        this.parent = parent;
+    }
+
+    /**
+     * Returns the pooled connection the transaction is running on.
+     *
+     * @return PooledConnection
+     */
+    public PooledConnection getPooledConnection()
+    {
+        return connection;
+    }
+
+    /**
+     * Returns the physical connection the transaction is running on.
+     *
+     * @return Connection
+     */
+    public Connection getConnection()
+    {
+        return connection.getConnection();
+    }
+
+    /**
+     * Checks to see if the transaction is nested inside another transaction.
+     *
+     * @return Boolean
+     */
+    public boolean isNested()
+    {
+        return parent != null;
+    }
+
+    /**
+     * Returns the savepoint the nested transaction was started from.
+     *
+     * @return Savepoint
+     */
+    public Savepoint getParent()
+    {
+        return parent;
+    }
+
+    /**
+     * Creates an unnamed savepoint in the transaction.
+     *
+     * @return Savepoint
+     * @throws SQLException
+     */
+    public Savepoint savepoint() throws SQLException
+    {
+        return getConnection().setSavepoint();
+    }
+
+    /**
+     * Creates a savepoint with the given name in the transaction.
+     *
+     * @param name The name of the savepoint.
+     * @return Savepoint
+     * @throws SQLException
+     */
+    public Savepoint savepoint(String name) throws SQLException
+    {
+        return getConnection().setSavepoint(name);
+    }
+
+    /**
+     * Rolls back every change made since the given savepoint was created.
+     *
+     * @param savepoint The savepoint to roll back to.
+     * @throws SQLException
+     */
+    public void rollback(Savepoint savepoint) throws SQLException
+    {
+        getConnection().rollback(savepoint);
+    }
+
+    /**
+     * Releases the given savepoint, the changes made since the
+     * savepoint was created remains part of the transaction.
+     *
+     * @param savepoint The savepoint to release.
+     * @throws SQLException
+     */
+    public void release(Savepoint savepoint) throws SQLException
+    {
+        getConnection().releaseSavepoint(savepoint);
+    }
+}
@@ -1,15 +1,53 @@
 package com.senither.library.database.contacts;
 
 import com.senither.library.SenLibrary;
+import com.senither.library.database.Transaction;
+import com.senither.library.database.eloquent.Collection;
+import com.senither.library.database.eloquent.Cursor;
+import com.senither.library.database.pool.ConnectionPool;
+import com.senither.library.database.pool.ConnectionPoolException;
+import com.senither.library.database.pool.PoolSettings;
+import com.senither.library.database.pool.PooledConnection;
+import com.senither.library.database.utils.BatchResult;
+import com.senither.library.database.utils.CompiledQuery;
 import com.senither.library.database.utils.QueryBuilder;
+import com.senither.library.database.utils.QueryCache;
+import com.senither.library.database.utils.QueryType;
+import com.senither.library.database.utils.UpdateResult;
+import com.senither.library.database.utils.WriteBehindBuffer;
+import com.senither.library.exceptions.DatabaseException;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Savepoint;
 import java.sql.Statement;
+import java.sql.Types;
+import java.time.Duration;
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import org.bukkit.Bukkit;
+import org.bukkit.plugin.Plugin;
+import javax.sql.rowset.CachedRowSet;
+import javax.sql.rowset.RowSetFactory;
+import javax.sql.rowset.RowSetMetaDataImpl;
+import javax.sql.rowset.RowSetProvider;
 
 public abstract class Database implements DatabaseContract
 {
@@ -31,21 +69,132 @@ public abstract class Database implements DatabaseContract
     protected Map<PreparedStatement, StatementContract> preparedStatements;
 
     /**
-     * Represents our current database connection, this is
-     * used to send queries to the database, as well as
-     * fetch, and persist data.
+     * Represents the pooled connections our prepared query statements
+     * was created on, the connection is handed back to the pool
+     * once the prepared statement has been executed.
      *
-     * @var Connection
+     * @var Map
+     */
+    protected Map<PreparedStatement, PooledConnection> preparedConnections;
+
+    /**
+     * Represents our database connection pool, this is used to
+     * borrow connections to send queries to the database,
+     * as well as fetch, and persist data.
+     *
+     * @var ConnectionPool
+     */
+    protected volatile ConnectionPool pool;
+
+    /**
+     * Represents the settings the connection pool
+     * will be created with once it is opened.
+     *
+     * @var PoolSettings
+     */
+    protected final PoolSettings poolSettings;
+
+    /**
+     * Represents the factory used to create disconnected result sets, allowing
+     * query results to outlive the connection they were fetched with.
+     *
+     * @var RowSetFactory
+     */
+    private static RowSetFactory rowSetFactory;
+
+    /**
+     * Represents the executor used to run asynchronous queries, keeping
+     * the database round trips off the server main thread.
+     *
+     * @var ExecutorService
+     */
+    private ExecutorService executor;
+
+    /**
+     * Represents the update count of the last statement that was sent
+     * through the query methods, the field is shared by every thread,
+     * so it can be overwritten by another query at any time.
+     *
+     * @var Integer
+     * @deprecated Use the {@link UpdateResult} returned by {@link #execute(String, List)} instead.
+     */
+    @Deprecated
+    protected volatile int lastUpdate;
+
+    /**
+     * Represents the maximum amount of rows sent to
+     * the database in a single batch execution.
+     *
+     * @var Integer
+     */
+    private int batchSize = 500;
+
+    /**
+     * Represents the default amount of rows a cursor
+     * fetches from the database at a time.
+     *
+     * @var Integer
      */
-    protected Connection connection;
+    private int fetchSize = 1000;
 
     /**
-     * Represents a unix timestamp of the last time we
-     * communicated with the database.
+     * Represents the write-behind buffer, pending writes in
+     * the buffer are flushed when the database is closed.
+     *
+     * @var WriteBehindBuffer
+     */
+    private WriteBehindBuffer writeBuffer;
+
+    /**
+     * Represents the transaction running on each thread, queries sent on
+     * a thread with a running transaction share its connection.
+     *
+     * @var ThreadLocal
+     */
+    private final ThreadLocal<Transaction> transactions = new ThreadLocal<>();
+
+    /**
+     * Represents the isolation level new transactions are started with,
+     * if the level is below zero the driver default will be used.
      *
      * @var Integer
      */
-    protected int lastUpdate;
+    private int transactionIsolation = -1;
+
+    /**
+     * Represents the cache used by query builders that
+     * asks for their results to be remembered.
+     *
+     * @var QueryCache
+     */
+    private final QueryCache queryCache = new QueryCache();
+
+    /**
+     * Represents the tables written to by the transaction running on each
+     * thread, cached results reading from the tables are invalidated
+     * again once the transaction has been committed.
+     *
+     * @var ThreadLocal
+     */
+    private final ThreadLocal<Set<String>> transactionWrites = new ThreadLocal<>();
+
+    /**
+     * Represents the select queries currently being sent to the database,
+     * callers sending an identical query while it's in flight waits
+     * for its result instead of sending their own query, as long
+     * as nothing has been written since the query was sent.
+     *
+     * @var ConcurrentHashMap
+     */
+    private final ConcurrentHashMap<CompiledQuery, InFlightQuery> inFlight = new ConcurrentHashMap<>();
+
+    /**
+     * Represents the amount of select queries that was served by waiting
+     * for an identical query that was already in flight.
+     *
+     * @var LongAdder
+     */
+    private final LongAdder coalesced = new LongAdder();
 
     /**
      * Creates a new database instance.
@@ -56,7 +205,9 @@ public abstract class Database implements DatabaseContract
     {
         this.library = library;
 
-        preparedStatements = new HashMap();
+        preparedStatements = new ConcurrentHashMap<>();
+        preparedConnections = new ConcurrentHashMap<>();
+        poolSettings = new PoolSettings();
     }
 
     /**
@@ -67,6 +218,16 @@ public abstract class Database implements DatabaseContract
      */
     protected abstract boolean initialize();
 
+    /**
+     * Creates a new physical connection to the database, this is
+     * called by the connection pool whenever it needs to
+     * grow, or replace a broken connection.
+     *
+     * @return Connection
+     * @throws SQLException
+     */
+    protected abstract Connection createConnection() throws SQLException;
+
     /**
      * Checks a statement for faults, issues, overlaps,
      * deprecated calls and other issues.
@@ -77,52 +238,329 @@ public abstract class Database implements DatabaseContract
     protected abstract void queryValidation(StatementContract paramStatement) throws SQLException;
 
     /**
-     * Closes the database connection.
+     * Checks to see if the driver reports a generated key for every row of
+     * a batched insert, drivers that doesn't will have their batched
+     * inserts run one row at a time instead, within the same
+     * transaction, so the key of every row can be read.
      *
      * @return Boolean
      */
-    public final boolean close()
+    protected boolean hasBatchKeys()
     {
-        if (connection == null) {
-            library.getLogger().warning("Database - Could not close connection, it is null.");
+        return true;
+    }
+
+    /**
+     * Opens the database connection pool, filling it
+     * up to the minimum amount of connections.
+     *
+     * @return Boolean
+     */
+    @Override
+    public synchronized boolean open()
+    {
+        if (!initialize()) {
             return false;
         }
 
         try {
-            connection.close();
+            ConnectionPool opened = new ConnectionPool(library, this::createConnection, poolSettings);
+
+            if (pool != null) {
+                pool.close();
+            }
+            pool = opened;
 
             return true;
         } catch (SQLException e) {
-            library.getLogger().warning("Database - Could not close connection, SQLException: {0}", e.getMessage());
+            library.getLogger().error("Database - Could not establish a {0} connection, SQLException: {1}", getClass().getSimpleName(), e.getMessage());
         }
 
         return false;
     }
 
     /**
-     * Returns the current database connection, if the
-     * connection is not open/active, it will attempt
-     * to open the connection for you.
+     * Closes the database connection pool.
+     *
+     * @return Boolean
+     */
+    public final boolean close()
+    {
+        if (pool == null) {
+            library.getLogger().warning("Database - Could not close connection, it is null.");
+            return false;
+        }
+
+        synchronized (this) {
+            if (writeBuffer != null) {
+                try {
+                    writeBuffer.close();
+                } catch (SQLException e) {
+                    library.getLogger().error("Database - Could not flush the write buffer, SQLException: {0}", e.getMessage());
+                }
+
+                writeBuffer = null;
+            }
+        }
+
+        pool.close();
+
+        if (executor != null) {
+            executor.shutdown();
+        }
+
+        return true;
+    }
+
+    /**
+     * Returns the write-behind buffer for the database, buffering updates
+     * to rows and merging repeated updates to the same row, until
+     * they're flushed to the database in a single transaction.
+     *
+     * @return WriteBehindBuffer
+     */
+    public final synchronized WriteBehindBuffer getWriteBuffer()
+    {
+        if (writeBuffer == null) {
+            writeBuffer = new WriteBehindBuffer(library, this);
+        }
+
+        return writeBuffer;
+    }
+
+    /**
+     * Returns the executor used to run asynchronous queries, if no executor
+     * has been set, a daemon thread pool matching the maximum size
+     * of the connection pool will be created for you.
+     *
+     * @return ExecutorService
+     */
+    public final synchronized ExecutorService getExecutor()
+    {
+        if (executor == null || executor.isShutdown()) {
+            AtomicInteger counter = new AtomicInteger(0);
+            int threads = poolSettings.getMaximumSize();
+
+            ThreadPoolExecutor threadPool = new ThreadPoolExecutor(threads, threads, 60L, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), (runnable) -> {
+                Thread thread = new Thread(runnable, "SenLibrary-Database-" + counter.incrementAndGet());
+                thread.setDaemon(true);
+
+                return thread;
+            });
+            threadPool.allowCoreThreadTimeOut(true);
+
+            executor = threadPool;
+        }
+
+        return executor;
+    }
+
+    /**
+     * Sets the executor used to run asynchronous queries, the
+     * executor will be shutdown once the database is closed.
+     *
+     * @param executor The executor to use.
+     */
+    public final synchronized void setExecutor(ExecutorService executor)
+    {
+        this.executor = executor;
+    }
+
+    /**
+     * Returns an executor that runs tasks on the server main thread, this can
+     * be used to hand the result of an asynchronous query back to
+     * the main thread, where it is safe to use the Bukkit API.
+     *
+     * @return Executor
+     */
+    public final Executor getMainThreadExecutor()
+    {
+        Plugin plugin = library.getPlugin();
+
+        return (runnable) -> {
+            if (Bukkit.isPrimaryThread()) {
+                runnable.run();
+            } else {
+                plugin.getServer().getScheduler().runTask(plugin, runnable);
+            }
+        };
+    }
+
+    /**
+     * Runs the given task on the database executor, the returned future
+     * is completed with the result of the task, or exceptionally
+     * with whatever exception the task threw.
+     *
+     * @param <T>  The type returned by the task.
+     * @param task The task to run.
+     * @return CompletableFuture
+     */
+    public final <T> CompletableFuture<T> async(Callable<T> task)
+    {
+        CompletableFuture<T> future = new CompletableFuture<>();
+
+        try {
+            getExecutor().execute(() -> {
+                try {
+                    future.complete(task.call());
+                } catch (Exception e) {
+                    future.completeExceptionally(e);
+                }
+            });
+        } catch (RuntimeException e) {
+            future.completeExceptionally(e);
+        }
+
+        return future;
+    }
+
+    /**
+     * Queries the database asynchronously with the given query.
+     *
+     * @param query The query to run.
+     * @return CompletableFuture
+     */
+    public final CompletableFuture<Collection> queryAsync(String query)
+    {
+        return async(() -> query(query, Collection::new));
+    }
+
+    /**
+     * Queries the database asynchronously with the query built from
+     * the query builder object, the query is built right away so
+     * the builder can safely be changed once this returns.
+     *
+     * @param builder The query to build.
+     * @return CompletableFuture
+     */
+    public final CompletableFuture<Collection> queryAsync(QueryBuilder builder)
+    {
+        CompiledQuery query = builder.compile();
+        QueryType type = builder.getType();
+        Set<String> tables = builder.getTables();
+        Duration lifetime = builder.getCacheLifetime();
+
+        return async(() -> get(query, type, tables, lifetime));
+    }
+
+    /**
+     * Stores data in the database asynchronously from the given
+     * query, the future is completed with a list of ids
+     * from the inserted rows.
+     *
+     * @param query The query to run.
+     * @return CompletableFuture
+     */
+    public final CompletableFuture<ArrayList<Long>> insertAsync(String query)
+    {
+        return async(() -> insert(query));
+    }
+
+    /**
+     * Stores data in the database asynchronously from the query built
+     * from the query builder object, the future is completed with
+     * a list of ids from the inserted rows.
+     *
+     * @param builder The query to build.
+     * @return CompletableFuture
+     */
+    public final CompletableFuture<ArrayList<Long>> insertAsync(QueryBuilder builder)
+    {
+        CompiledQuery query = builder.compile();
+        Set<String> tables = builder.getTables();
+
+        return async(() -> {
+            ArrayList<Long> keys = insert(query.getQuery(), query.getBindings());
+
+            written(tables);
+
+            return keys;
+        });
+    }
+
+    /**
+     * Returns the settings the connection pool is created with, changes
+     * to the settings will only take effect once the pool is opened.
+     *
+     * @return PoolSettings
+     */
+    public PoolSettings getPoolSettings()
+    {
+        return poolSettings;
+    }
+
+    /**
+     * Returns the database connection pool, if no
+     * pool has been opened yet, this will be null.
+     *
+     * @return ConnectionPool
+     */
+    public final ConnectionPool getPool()
+    {
+        return pool;
+    }
+
+    /**
+     * Returns a database connection from the connection pool, if the pool
+     * is not open, it will attempt to open the pool for you, if a
+     * transaction is running on the current thread, the transaction
+     * connection will be returned instead.
+     * <p>
+     * The connection is handed straight back to the pool, so it may be used
+     * by other callers at the same time, and it must not be closed, or have
+     * its transaction state changed, use {@link #borrowConnection()}
+     * to get a connection that is only used by the caller.
      *
      * @return Connection
      */
     public final Connection getConnection()
     {
+        try (PooledConnection connection = borrowConnection()) {
+            return connection.getConnection();
+        } catch (SQLException e) {
+            library.getLogger().warning("Database - Could not get a database connection, SQLException: {0}", e.getMessage());
+
+            return null;
+        }
+    }
+
+    /**
+     * Borrows a connection from the connection pool, if the pool is not
+     * open, it will attempt to open the pool for you, the connection
+     * must be closed to hand it back to the pool once you're done,
+     * if a transaction is running on the current thread, the
+     * transaction connection will be returned instead.
+     *
+     * @return PooledConnection
+     * @throws SQLException
+     */
+    public final PooledConnection borrowConnection() throws SQLException
+    {
+        Transaction transaction = transactions.get();
+
+        if (transaction != null) {
+            return transaction.getPooledConnection().lease();
+        }
+
         if (!isOpen()) {
-            open();
+            synchronized (this) {
+                if (!isOpen() && !open()) {
+                    throw new ConnectionPoolException("Could not open a connection to the database.");
+                }
+            }
         }
 
-        return connection;
+        return pool.borrow();
     }
 
     /**
-     * Checks to see if the database connection is still valid.
+     * Checks to see if the database connection pool is open.
      *
      * @return Boolean
      */
     public final boolean isOpen()
     {
-        return isOpen(1);
+        return pool != null && !pool.isClosed();
     }
 
     /**
@@ -133,11 +571,9 @@ public abstract class Database implements DatabaseContract
      */
     public final boolean isOpen(int seconds)
     {
-        if (connection != null) {
-            try {
-                if (connection.isValid(seconds)) {
-                    return true;
-                }
+        if (isOpen()) {
+            try (PooledConnection connection = pool.borrow()) {
+                return connection.getConnection().isValid(seconds);
             } catch (SQLException e) {
             }
         }
@@ -146,126 +582,497 @@ public abstract class Database implements DatabaseContract
     }
 
     /**
-     * Get the unix timestamp of the last time the class
-     * communicated with the database.
+     * Returns the update count of the last statement that was sent through
+     * the query methods, by any thread, the count isn't tied to the
+     * query the caller sent, use the execute methods instead.
      *
      * @return Integer
+     * @deprecated Use the {@link UpdateResult} returned by {@link #execute(String, List)} instead.
      */
+    @Deprecated
     public final int getLastUpdateCount()
     {
         return lastUpdate;
     }
 
     /**
-     * Queries the database with the given query.
+     * Queries the database with the given query, the result set
+     * is disconnected from the database, allowing the
+     * connection to be handed back to the pool.
      *
      * @param query The query to run.
      * @return ResultSet
      * @throws SQLException
      */
-    public final synchronized ResultSet query(String query) throws SQLException
+    public final ResultSet query(String query) throws SQLException
     {
         library.getLogger().info("Database - The follow query has been added to the query queue: " + query);
 
         queryValidation(getStatement(query));
-        Statement statement = getConnection().createStatement();
 
-        if (statement.execute(query)) {
-            return statement.getResultSet();
+        try (PooledConnection connection = borrowConnection(); Statement statement = connection.getConnection().createStatement()) {
+            boolean hasResult = statement.execute(query);
+            connection.touch();
+
+            if (hasResult) {
+                return disconnect(statement.getResultSet());
+            }
+
+            return updateCount(statement.getUpdateCount());
         }
+    }
+
+    /**
+     * Queries the database with the given query, and parses the result
+     * set to the given handler while the connection is still
+     * borrowed, returning whatever the handler returns.
+     *
+     * @param <T>     The type returned by the handler.
+     * @param query   The query to run.
+     * @param handler The result handler.
+     * @return The handled result.
+     * @throws SQLException
+     */
+    public final <T> T query(String query, ResultHandler<T> handler) throws SQLException
+    {
+        library.getLogger().info("Database - The follow query has been added to the query queue: " + query);
+
+        queryValidation(getStatement(query));
+
+        try (PooledConnection connection = borrowConnection(); Statement statement = connection.getConnection().createStatement()) {
+            boolean hasResult = statement.execute(query);
+            connection.touch();
 
-        return getConnection().createStatement().executeQuery("SELECT " + (lastUpdate = statement.getUpdateCount()));
+            if (hasResult) {
+                try (ResultSet result = statement.getResultSet()) {
+                    return handler.handle(result);
+                }
+            }
+
+            try (ResultSet result = updateCount(statement.getUpdateCount())) {
+                return handler.handle(result);
+            }
+        }
     }
 
     /**
-     * Queries the database with the query built from the query builder object.
+     * Queries the database with the given query, binding the given
+     * values to the question mark placeholders in the query.
      *
-     * @param builder The query to build.
+     * @param query    The query to run.
+     * @param bindings The values to bind to the query.
      * @return ResultSet
      * @throws SQLException
      */
-    public final synchronized ResultSet query(QueryBuilder builder) throws SQLException
+    public final ResultSet query(String query, List<Object> bindings) throws SQLException
     {
-        return query(builder.toSQL());
+        return query(query, bindings, this::disconnect);
     }
 
     /**
-     * Queries the database with the given prepared statement.
+     * Queries the database with the given query, binding the given values
+     * to the question mark placeholders in the query, and parses the
+     * result set to the given handler while the connection
+     * is still borrowed.
      *
-     * @param query     The prepared statement to run.
-     * @param statement The query statement.
-     * @return ResultSet
+     * @param <T>      The type returned by the handler.
+     * @param query    The query to run.
+     * @param bindings The values to bind to the query.
+     * @param handler  The result handler.
+     * @return The handled result.
      * @throws SQLException
      */
-    public final synchronized ResultSet query(PreparedStatement query, StatementContract statement) throws SQLException
+    public final <T> T query(String query, List<Object> bindings, ResultHandler<T> handler) throws SQLException
     {
-        library.getLogger().info("Database - The follow prepared statement has been added to the query queue: " + query);
+        library.getLogger().info("Database - The follow query has been added to the query queue: " + query);
 
-        queryValidation(statement);
+        queryValidation(getStatement(query));
 
-        if (query.execute()) {
-            return query.getResultSet();
-        }
+        try (PooledConnection connection = borrowConnection()) {
+            PreparedStatement statement = connection.prepare(query);
+            bind(statement, bindings);
+
+            boolean hasResult = statement.execute();
+            connection.touch();
+
+            if (hasResult) {
+                try (ResultSet result = statement.getResultSet()) {
+                    return handler.handle(result);
+                }
+            }
 
-        return connection.createStatement().executeQuery("SELECT " + (lastUpdate = query.getUpdateCount()));
+            try (ResultSet result = updateCount(statement.getUpdateCount())) {
+                return handler.handle(result);
+            }
+        }
     }
 
     /**
-     * Queries the database with the given prepared statement.
+     * Queries the database with the query built from the query builder object.
      *
-     * @param query The prepared statement to run.
+     * @param builder The query to build.
      * @return ResultSet
      * @throws SQLException
      */
-    public final synchronized ResultSet query(PreparedStatement query) throws SQLException
+    public final ResultSet query(QueryBuilder builder) throws SQLException
     {
-        ResultSet output = query(query, (StatementContract) preparedStatements.get(query));
+        CompiledQuery query = builder.compile();
 
-        preparedStatements.remove(query);
+        ResultSet result = query(query.getQuery(), query.getBindings());
 
-        return output;
+        written(builder);
+
+        return result;
     }
 
     /**
-     * Prepares a query as a prepared statement before executing it.
+     * Queries the database with the query built from the query builder
+     * object, and parses the result set to the given handler.
      *
-     * @param query The query to prepare.
-     * @return PreparedStatement
+     * @param <T>     The type returned by the handler.
+     * @param builder The query to build.
+     * @param handler The result handler.
+     * @return The handled result.
      * @throws SQLException
      */
-    public final synchronized PreparedStatement prepare(String query) throws SQLException
+    public final <T> T query(QueryBuilder builder, ResultHandler<T> handler) throws SQLException
     {
-        library.getLogger().info("Database - The follow query has been added to the prepared query queue: " + query);
+        CompiledQuery query = builder.compile();
 
-        StatementContract statement = getStatement(query);
-        PreparedStatement ps = connection.prepareStatement(query);
+        T result = query(query.getQuery(), query.getBindings(), handler);
 
-        preparedStatements.put(ps, statement);
+        written(builder);
 
-        return ps;
+        return result;
     }
 
     /**
-     * Stores data in the database from the given query, this
-     * will return a list of ids from the inserted rows.
+     * Queries the database with the query built from the query builder object,
+     * and reads the result into a collection, if the builder asks for its
+     * result to be remembered, the result is served from the query
+     * cache until it expires, or one of its tables is written to, if an
+     * identical select query is already in flight, its result is
+     * shared instead of sending the same query again.
      *
-     * @param query The query to run.
-     * @return ArrayList
+     * @param builder The query to build.
+     * @return Collection
      * @throws SQLException
      */
-    public final synchronized ArrayList<Long> insert(String query) throws SQLException
+    public final Collection get(QueryBuilder builder) throws SQLException
     {
-        library.getLogger().info("Database - The follow query has been added to the query inserter: " + query);
+        return get(builder.compile(), builder.getType(), builder.getTables(), builder.getCacheLifetime());
+    }
 
-        ArrayList<Long> keys = new ArrayList();
+    /**
+     * Returns the amount of select queries that was never sent to the database,
+     * because an identical query was already in flight, the callers
+     * shared the result of the query already in flight instead.
+     *
+     * @return Long
+     */
+    public final long getCoalescedQueryCount()
+    {
+        return coalesced.sum();
+    }
+
+    /**
+     * Returns the cache used by query builders that asks for their results
+     * to be remembered, the cache can be used to tune the maximum
+     * weight, and to read the hit, miss and eviction counters.
+     *
+     * @return QueryCache
+     */
+    public final QueryCache getQueryCache()
+    {
+        return queryCache;
+    }
+
+    /**
+     * Queries the database with the given query, returning a cursor that reads
+     * the rows lazily in batches of the default fetch size, instead of
+     * reading the entire result into memory at once.
+     *
+     * @param query    The query to run.
+     * @param bindings The values to bind to the query.
+     * @return Cursor
+     * @throws SQLException
+     */
+    public final Cursor cursor(String query, List<Object> bindings) throws SQLException
+    {
+        return cursor(query, bindings, fetchSize);
+    }
+
+    /**
+     * Queries the database with the given query, returning a cursor that reads
+     * the rows lazily in batches of the given fetch size, the connection
+     * stays borrowed until the cursor has been read to the end, or
+     * until it is closed, so the cursor should always be closed,
+     * once every connection in the pool is held by an open cursor
+     * or prepared statement, other queries fail right away.
+     *
+     * @param query     The query to run.
+     * @param bindings  The values to bind to the query.
+     * @param fetchSize The amount of rows to fetch at a time.
+     * @return Cursor
+     * @throws SQLException
+     */
+    public final Cursor cursor(String query, List<Object> bindings, int fetchSize) throws SQLException
+    {
+        library.getLogger().info("Database - The follow query has been added to the cursor queue: " + query);
+
+        queryValidation(getStatement(query));
+
+        PooledConnection connection = borrowConnection().hold();
+        PreparedStatement statement = null;
+
+        try {
+            statement = connection.getConnection().prepareStatement(query, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            statement.setFetchSize(fetchSize);
+            bind(statement, bindings);
+
+            ResultSet result = statement.executeQuery();
+            connection.touch();
+
+            return new Cursor(connection, statement, result);
+        } catch (SQLException | RuntimeException e) {
+            if (statement != null) {
+                statement.close();
+            }
+            connection.close();
+
+            throw e;
+        }
+    }
+
+    /**
+     * Queries the database with the query built from the query builder
+     * object, returning a cursor that reads the rows lazily.
+     *
+     * @param builder   The query to build.
+     * @param fetchSize The amount of rows to fetch at a time.
+     * @return Cursor
+     * @throws SQLException
+     */
+    public final Cursor cursor(QueryBuilder builder, int fetchSize) throws SQLException
+    {
+        CompiledQuery query = builder.compile();
+
+        return cursor(query.getQuery(), query.getBindings(), fetchSize);
+    }
+
+    /**
+     * Returns the maximum amount of parameters the driver allows to be bound
+     * to a single query, large IN clauses are split into multiple queries
+     * to stay below the limit, this defaults to the lowest common
+     * limit, the SQLite limit of 999 parameters.
+     *
+     * @return Integer
+     */
+    public int getParameterLimit()
+    {
+        return 999;
+    }
+
+    /**
+     * Returns the default amount of rows a cursor fetches at a time.
+     *
+     * @return Integer
+     */
+    public final int getFetchSize()
+    {
+        return fetchSize;
+    }
+
+    /**
+     * Sets the default amount of rows a cursor fetches at a time.
+     *
+     * @param fetchSize The fetch size.
+     */
+    public final void setFetchSize(int fetchSize)
+    {
+        if (fetchSize < 1) {
+            throw new DatabaseException("The fetch size cannot be below 1.");
+        }
+
+        this.fetchSize = fetchSize;
+    }
+
+    /**
+     * Queries the database with the given prepared statement.
+     *
+     * @param query     The prepared statement to run.
+     * @param statement The query statement.
+     * @return ResultSet
+     * @throws SQLException
+     */
+    public final ResultSet query(PreparedStatement query, StatementContract statement) throws SQLException
+    {
+        library.getLogger().info("Database - The follow prepared statement has been added to the query queue: " + query);
+
+        queryValidation(statement);
+
+        if (query.execute()) {
+            return disconnect(query.getResultSet());
+        }
+
+        return updateCount(query.getUpdateCount());
+    }
+
+    /**
+     * Queries the database with the given prepared statement.
+     *
+     * @param query The prepared statement to run.
+     * @return ResultSet
+     * @throws SQLException
+     */
+    public final ResultSet query(PreparedStatement query) throws SQLException
+    {
+        try {
+            ResultSet result = query(query, preparedStatements.get(query));
+            touch(query);
+
+            return result;
+        } finally {
+            release(query);
+        }
+    }
+
+    /**
+     * Prepares a query as a prepared statement before executing it, the
+     * statement is never taken from the statement cache, since the caller
+     * owns it until it is executed or released, and keeps its connection
+     * borrowed from the pool until then, inside a transaction every
+     * prepared statement holds its own lease on the connection, once
+     * every connection in the pool is held by an open prepared
+     * statement or cursor, other queries fail right away.
+     *
+     * @param query The query to prepare.
+     * @return PreparedStatement
+     * @throws SQLException
+     */
+    public final PreparedStatement prepare(String query) throws SQLException
+    {
+        library.getLogger().info("Database - The follow query has been added to the prepared query queue: " + query);
+
+        StatementContract statement = getStatement(query);
+        PooledConnection connection = borrowConnection().hold();
+
+        try {
+            PreparedStatement ps = generatesKeys(statement)
+                    ? connection.getConnection().prepareStatement(query, Statement.RETURN_GENERATED_KEYS)
+                    : connection.getConnection().prepareStatement(query);
+
+            preparedStatements.put(ps, statement);
+            preparedConnections.put(ps, connection);
+
+            return ps;
+        } catch (SQLException e) {
+            connection.close();
+
+            throw e;
+        }
+    }
+
+    /**
+     * Marks the connection the given prepared statement was
+     * prepared on as successfully used right now.
+     *
+     * @param query The prepared statement that was run.
+     */
+    private void touch(PreparedStatement query)
+    {
+        PooledConnection connection = preparedConnections.get(query);
+
+        if (connection != null) {
+            connection.touch();
+        }
+    }
 
-        PreparedStatement ps = connection.prepareStatement(query, 1);
-        lastUpdate = ps.executeUpdate();
+    /**
+     * Releases a prepared statement, closing the statement and
+     * handing its connection back to the pool.
+     *
+     * @param query The prepared statement to release.
+     */
+    public final void release(PreparedStatement query)
+    {
+        preparedStatements.remove(query);
+        PooledConnection connection = preparedConnections.remove(query);
+
+        if (connection == null) {
+            return;
+        }
+
+        try {
+            query.close();
+        } catch (SQLException e) {
+        } finally {
+            connection.close();
+        }
+    }
+
+    /**
+     * Stores data in the database from the given query, this
+     * will return a list of ids from the inserted rows.
+     *
+     * @param query The query to run.
+     * @return ArrayList
+     * @throws SQLException
+     */
+    public final ArrayList<Long> insert(String query) throws SQLException
+    {
+        library.getLogger().info("Database - The follow query has been added to the query inserter: " + query);
+
+        try (PooledConnection connection = borrowConnection(); PreparedStatement ps = connection.getConnection().prepareStatement(query, Statement.RETURN_GENERATED_KEYS)) {
+            lastUpdate = ps.executeUpdate();
+            connection.touch();
+
+            return generatedKeys(ps);
+        }
+    }
+
+    /**
+     * Stores data in the database from the given query, binding the
+     * given values to the question mark placeholders in the query,
+     * this will return a list of ids from the inserted rows.
+     *
+     * @param query    The query to run.
+     * @param bindings The values to bind to the query.
+     * @return ArrayList
+     * @throws SQLException
+     */
+    public final ArrayList<Long> insert(String query, List<Object> bindings) throws SQLException
+    {
+        library.getLogger().info("Database - The follow query has been added to the query inserter: " + query);
+
+        try (PooledConnection connection = borrowConnection()) {
+            boolean keys = generatesKeys(getStatement(query));
+
+            PreparedStatement ps = keys ? connection.prepareWithKeys(query) : connection.prepare(query);
+            bind(ps, bindings);
+            lastUpdate = ps.executeUpdate();
+            connection.touch();
 
-        ResultSet key = ps.getGeneratedKeys();
-        if (key.next()) {
-            keys.add(key.getLong(1));
+            return keys ? generatedKeys(ps) : new ArrayList<>();
         }
+    }
+
+    /**
+     * Stores data in the database from the query built from the query
+     * builder object, this will return a list of ids from the
+     * inserted rows.
+     *
+     * @param builder The query to build.
+     * @return ArrayList
+     * @throws SQLException
+     */
+    public final ArrayList<Long> insert(QueryBuilder builder) throws SQLException
+    {
+        CompiledQuery query = builder.compile();
+
+        ArrayList<Long> keys = insert(query.getQuery(), query.getBindings());
+
+        written(builder);
 
         return keys;
     }
@@ -278,19 +1085,736 @@ public abstract class Database implements DatabaseContract
      * @return ArrayList
      * @throws SQLException
      */
-    public final synchronized ArrayList<Long> insert(PreparedStatement query) throws SQLException
+    public final ArrayList<Long> insert(PreparedStatement query) throws SQLException
     {
         library.getLogger().info("Database - The follow prepared statement has been added to the query inserter: " + query);
 
-        lastUpdate = query.executeUpdate();
-        preparedStatements.remove(query);
+        try {
+            lastUpdate = query.executeUpdate();
+            touch(query);
 
-        ArrayList<Long> keys = new ArrayList();
-        ResultSet key = query.getGeneratedKeys();
-        if (key.next()) {
-            keys.add(key.getLong(1));
+            return generatedKeys(query, preparedStatements.get(query));
+        } finally {
+            release(query);
         }
+    }
 
-        return keys;
+    /**
+     * Runs the given INSERT, UPDATE or DELETE query, returning the amount of
+     * affected rows and the generated keys straight from the statement,
+     * keys are only requested for INSERT and REPLACE statements.
+     *
+     * @param query The query to run.
+     * @return UpdateResult
+     * @throws SQLException
+     */
+    public final UpdateResult execute(String query) throws SQLException
+    {
+        return execute(query, Collections.emptyList());
+    }
+
+    /**
+     * Runs the given INSERT, UPDATE or DELETE query, binding the given
+     * values to the question mark placeholders in the query, the
+     * result is tied to this call, so it is safe to use while
+     * other threads are sending queries of their own.
+     *
+     * @param query    The query to run.
+     * @param bindings The values to bind to the query.
+     * @return UpdateResult
+     * @throws SQLException
+     */
+    public final UpdateResult execute(String query, List<Object> bindings) throws SQLException
+    {
+        library.getLogger().info("Database - The follow query has been added to the update queue: " + query);
+
+        queryValidation(getStatement(query));
+
+        try (PooledConnection connection = borrowConnection()) {
+            boolean keys = generatesKeys(getStatement(query));
+
+            PreparedStatement ps = keys ? connection.prepareWithKeys(query) : connection.prepare(query);
+            bind(ps, bindings);
+
+            int affectedRows = ps.executeUpdate();
+            connection.touch();
+
+            return new UpdateResult(affectedRows, keys ? generatedKeys(ps) : new ArrayList<>());
+        }
+    }
+
+    /**
+     * Runs the given prepared INSERT, UPDATE or DELETE statement, and
+     * hands its connection back to the pool once it has been run.
+     *
+     * @param query The prepared statement to run.
+     * @return UpdateResult
+     * @throws SQLException
+     */
+    public final UpdateResult execute(PreparedStatement query) throws SQLException
+    {
+        library.getLogger().info("Database - The follow prepared statement has been added to the update queue: " + query);
+
+        try {
+            int affectedRows = query.executeUpdate();
+            touch(query);
+
+            return new UpdateResult(affectedRows, generatedKeys(query, preparedStatements.get(query)));
+        } finally {
+            release(query);
+        }
+    }
+
+    /**
+     * Runs the INSERT, UPDATE, UPSERT or DELETE query built from the query builder
+     * object, and invalidates the cached results reading from its tables.
+     *
+     * @param builder The query to build.
+     * @return UpdateResult
+     * @throws SQLException
+     */
+    public final UpdateResult update(QueryBuilder builder) throws SQLException
+    {
+        if (builder.getType() == QueryType.SELECT) {
+            throw new DatabaseException("Select queries can not be run as an update, use query or get instead.");
+        }
+
+        CompiledQuery query = builder.compile();
+
+        UpdateResult result = execute(query.getQuery(), query.getBindings());
+
+        written(builder);
+
+        return result;
+    }
+
+    /**
+     * Returns the maximum amount of rows sent to the
+     * database in a single batch execution.
+     *
+     * @return Integer
+     */
+    public final int getBatchSize()
+    {
+        return batchSize;
+    }
+
+    /**
+     * Sets the maximum amount of rows sent to the database in a single
+     * batch execution, larger batches are split up into chunks
+     * of the given size, all within the same transaction.
+     *
+     * @param batchSize The batch size.
+     */
+    public final void setBatchSize(int batchSize)
+    {
+        if (batchSize < 1) {
+            throw new DatabaseException("The batch size cannot be below 1.");
+        }
+
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Runs the given query once for every row of values using JDBC batching,
+     * the rows are sent to the database in chunks of the batch size,
+     * and are committed together once every chunk has been sent.
+     *
+     * @param query The query to run for every row.
+     * @param rows  The values to bind to the query, one list per row.
+     * @return BatchResult
+     * @throws SQLException
+     */
+    public final BatchResult batch(String query, List<List<Object>> rows) throws SQLException
+    {
+        return batch(Collections.singletonMap(query, rows)).get(query);
+    }
+
+    /**
+     * Runs every query in the given map once for every row of values using
+     * JDBC batching, the queries are executed in the order of the map,
+     * and are all committed together in a single transaction, if a
+     * transaction is already running, the batch will be part of it.
+     *
+     * @param batches The queries to run, mapped to their rows of values.
+     * @return Map
+     * @throws SQLException
+     */
+    public final Map<String, BatchResult> batch(Map<String, List<List<Object>>> batches) throws SQLException
+    {
+        return batch(batches, Collections.emptySet());
+    }
+
+    /**
+     * Runs every query in the given map once for every row of values using
+     * JDBC batching, and invalidates the cached results reading from the
+     * given tables, if a transaction is already running, the tables
+     * are invalidated again once the transaction has committed.
+     *
+     * @param batches The queries to run, mapped to their rows of values.
+     * @param tables  The tables the queries writes to.
+     * @return Map
+     * @throws SQLException
+     */
+    public final Map<String, BatchResult> batch(Map<String, List<List<Object>>> batches, Set<String> tables) throws SQLException
+    {
+        for (String query : batches.keySet()) {
+            queryValidation(getStatement(query));
+        }
+
+        Map<String, BatchResult> results = new LinkedHashMap<>();
+
+        transaction((transaction) -> {
+            for (Map.Entry<String, List<List<Object>>> entry : batches.entrySet()) {
+                results.put(entry.getKey(), executeBatch(transaction.getPooledConnection(), entry.getKey(), entry.getValue()));
+            }
+
+            if (!tables.isEmpty()) {
+                written(tables);
+            }
+        });
+
+        return results;
+    }
+
+    /**
+     * Runs the given callback inside a transaction using the default isolation
+     * level, every query sent through the database on the same thread
+     * while the callback is running shares the same connection, and
+     * is committed together once the callback returns, if the
+     * callback throws, the transaction is rolled back.
+     *
+     * @param callback The work to run inside the transaction.
+     * @throws SQLException
+     */
+    public final void transaction(TransactionCallback callback) throws SQLException
+    {
+        transaction(transactionIsolation, callback);
+    }
+
+    /**
+     * Runs the given callback inside a transaction using the given isolation
+     * level, if a transaction is already running on the current thread, the
+     * callback runs in a nested transaction backed by a savepoint instead.
+     *
+     * @param isolation The isolation level, one of the Connection.TRANSACTION_* constants.
+     * @param callback  The work to run inside the transaction.
+     * @throws SQLException
+     */
+    public final void transaction(int isolation, TransactionCallback callback) throws SQLException
+    {
+        Transaction current = transactions.get();
+
+        if (current != null) {
+            nestedTransaction(current, callback);
+            return;
+        }
+
+        try (PooledConnection pooled = borrowConnection()) {
+            Connection connection = pooled.getConnection();
+            int previousIsolation = isolation < 0 ? -1 : connection.getTransactionIsolation();
+
+            if (isolation >= 0 && isolation != previousIsolation) {
+                connection.setTransactionIsolation(isolation);
+            }
+
+            connection.setAutoCommit(false);
+            transactions.set(new Transaction(pooled, null));
+            transactionWrites.set(new HashSet<>());
+
+            Throwable failure = null;
+
+            try {
+                callback.run(transactions.get());
+
+                connection.commit();
+                pooled.touch();
+            } catch (Throwable e) {
+                failure = e;
+
+                try {
+                    connection.rollback();
+                } catch (SQLException ex) {
+                    e.addSuppressed(ex);
+                }
+
+                throw e;
+            } finally {
+                Set<String> writes = transactionWrites.get();
+
+                transactions.remove();
+                transactionWrites.remove();
+
+                queryCache.invalidate(writes);
+
+                try {
+                    connection.setAutoCommit(true);
+
+                    if (isolation >= 0 && isolation != previousIsolation) {
+                        connection.setTransactionIsolation(previousIsolation);
+                    }
+                } catch (SQLException e) {
+                    // The connection is left in an unknown state, so it's closed instead of being
+                    // reused, the original failure is kept, since it's what made the transaction
+                    // fail, if the transaction was committed, the failure is only logged.
+                    pooled.evict();
+
+                    if (failure != null) {
+                        failure.addSuppressed(e);
+                    } else {
+                        library.getLogger().warning("Database - Could not restore the connection after a transaction, the connection will be closed, SQLException: {0}", e.getMessage());
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Checks to see if a transaction is running on the current thread.
+     *
+     * @return Boolean
+     */
+    public final boolean inTransaction()
+    {
+        return transactions.get() != null;
+    }
+
+    /**
+     * Returns the transaction running on the current
+     * thread, or null if no transaction is running.
+     *
+     * @return Transaction
+     */
+    public final Transaction getTransaction()
+    {
+        return transactions.get();
+    }
+
+    /**
+     * Returns the isolation level new transactions are started with.
+     *
+     * @return Integer
+     */
+    public final int getTransactionIsolation()
+    {
+        return transactionIsolation;
+    }
+
+    /**
+     * Sets the isolation level new transactions are started with, use one of
+     * the Connection.TRANSACTION_* constants, or -1 for the driver default.
+     *
+     * @param transactionIsolation The isolation level.
+     */
+    public final void setTransactionIsolation(int transactionIsolation)
+    {
+        this.transactionIsolation = transactionIsolation;
+    }
+
+    /**
+     * Runs the insert query built from the query builder object using JDBC
+     * batching, every item in the builder is sent as its own row in
+     * the batch, instead of as one large multi-row insert.
+     *
+     * @param builder The query to build.
+     * @return BatchResult
+     * @throws SQLException
+     */
+    public final BatchResult batch(QueryBuilder builder) throws SQLException
+    {
+        if (builder.getItems().isEmpty()) {
+            return new BatchResult(new ArrayList<>(), new int[0]);
+        }
+
+        List<String> keyset = builder.getItemKeys();
+        List<List<Object>> rows = new ArrayList<>(builder.getItems().size());
+
+        for (Map<String, Object> item : builder.getItems()) {
+            List<Object> row = new ArrayList<>(keyset.size());
+
+            for (String key : keyset) {
+                row.add(item.get(key));
+            }
+
+            rows.add(row);
+        }
+
+        BatchResult result = batch(builder.toBatchSQL(), rows);
+
+        written(builder);
+
+        return result;
+    }
+
+    /**
+     * Queries the database with the given compiled query, and reads the result
+     * into a collection, select queries with a cache lifetime are served
+     * from the query cache, and identical select queries sent at the same
+     * time shares a single result, unless they're sent in a transaction,
+     * or something was written after the running query was sent.
+     *
+     * @param query    The compiled query.
+     * @param type     The type of the query.
+     * @param tables   The tables the query reads from, or writes to.
+     * @param lifetime The amount of time to cache the result for, or null.
+     * @return Collection
+     * @throws SQLException
+     */
+    private Collection get(CompiledQuery query, QueryType type, Set<String> tables, Duration lifetime) throws SQLException
+    {
+        if (type != QueryType.SELECT) {
+            Collection result = query(query.getQuery(), query.getBindings(), Collection::new);
+
+            written(tables);
+
+            return result;
+        }
+
+        // Transactions must read their own writes on their own connection,
+        // so they're never served by the cache, or another thread.
+        if (inTransaction()) {
+            return query(query.getQuery(), query.getBindings(), Collection::new);
+        }
+
+        if (lifetime != null) {
+            Collection cached = queryCache.get(query);
+            if (cached != null) {
+                return cached;
+            }
+        }
+
+        // The version is read before the query is registered, so callers only join
+        // the query if nothing has been written since, a caller that just wrote
+        // to the database must never be handed a result read before the write.
+        InFlightQuery flight = new InFlightQuery(queryCache.getVersion());
+        InFlightQuery running = inFlight.putIfAbsent(query, flight);
+
+        if (running != null) {
+            if (running.version == flight.version) {
+                coalesced.increment();
+
+                return await(running.future).copy();
+            }
+
+            if (!inFlight.replace(query, running, flight)) {
+                flight = new InFlightQuery(flight.version);
+            }
+        }
+
+        Collection result;
+        try {
+            result = query(query.getQuery(), query.getBindings(), Collection::new);
+
+            if (lifetime != null) {
+                queryCache.put(query, tables, result, lifetime.toMillis(), flight.version);
+            }
+        } catch (Throwable e) {
+            inFlight.remove(query, flight);
+            flight.future.completeExceptionally(e);
+
+            throw e;
+        }
+
+        // Callers waiting for the query are handed their own copy of the result,
+        // so they can't change the rows handed out to each other.
+        inFlight.remove(query, flight);
+        flight.future.complete(result.copy());
+
+        return result;
+    }
+
+    /**
+     * Waits for the given in flight query to complete, and returns its result.
+     *
+     * @param future The query in flight.
+     * @return Collection
+     * @throws SQLException
+     */
+    private Collection await(CompletableFuture<Collection> future) throws SQLException
+    {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+
+            throw new SQLException("Interrupted while waiting for an identical query to complete.", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+
+            throw new SQLException(e.getCause().getMessage(), e.getCause());
+        }
+    }
+
+    /**
+     * Invalidates the cached results reading from the tables
+     * the query built by the query builder writes to.
+     *
+     * @param builder The query builder that was sent to the database.
+     */
+    private void written(QueryBuilder builder)
+    {
+        if (builder.getType() != QueryType.SELECT) {
+            written(builder.getTables());
+        }
+    }
+
+    /**
+     * Invalidates the cached results reading from the given tables, if a
+     * transaction is running, the tables are invalidated again once it
+     * ends, since other threads can't see the writes before then.
+     *
+     * @param tables The tables that was written to.
+     */
+    private void written(Set<String> tables)
+    {
+        queryCache.invalidate(tables);
+
+        Set<String> writes = transactionWrites.get();
+        if (writes != null) {
+            writes.addAll(tables);
+        }
+    }
+
+    /**
+     * Runs the given callback in a nested transaction, backed by a savepoint
+     * in the running transaction, if the callback throws, only the changes
+     * made by the nested transaction are rolled back.
+     *
+     * @param current  The transaction running on the current thread.
+     * @param callback The work to run inside the nested transaction.
+     * @throws SQLException
+     */
+    private void nestedTransaction(Transaction current, TransactionCallback callback) throws SQLException
+    {
+        Savepoint savepoint = current.savepoint();
+        Transaction nested = new Transaction(current.getPooledConnection(), savepoint);
+
+        transactions.set(nested);
+
+        try {
+            callback.run(nested);
+
+            current.release(savepoint);
+        } catch (Throwable e) {
+            try {
+                current.rollback(savepoint);
+            } catch (SQLException ex) {
+                e.addSuppressed(ex);
+            }
+
+            throw e;
+        } finally {
+            transactions.set(current);
+        }
+    }
+
+    /**
+     * Executes the given query for every row of values on the given connection,
+     * sending the rows to the database in chunks of the batch size, inserts
+     * are run one row at a time if the driver doesn't report a key for
+     * every row of a batch, see {@link #hasBatchKeys()}.
+     *
+     * @param pooled The connection to execute the batch on.
+     * @param query  The query to run for every row.
+     * @param rows   The values to bind to the query, one list per row.
+     * @return BatchResult
+     * @throws SQLException
+     */
+    private BatchResult executeBatch(PooledConnection pooled, String query, List<List<Object>> rows) throws SQLException
+    {
+        library.getLogger().info("Database - The follow query has been added to the batch queue with {0} rows: {1}", rows.size(), query);
+
+        List<Long> keys = new ArrayList<>();
+        int[] updateCounts = new int[rows.size()];
+
+        boolean generatesKeys = generatesKeys(getStatement(query));
+
+        PreparedStatement statement = generatesKeys ? pooled.prepareWithKeys(query) : pooled.prepare(query);
+
+        if (generatesKeys && !hasBatchKeys()) {
+            for (int i = 0; i < rows.size(); i++) {
+                bind(statement, rows.get(i));
+                updateCounts[i] = statement.executeUpdate();
+
+                keys.addAll(generatedKeys(statement));
+            }
+
+            return new BatchResult(keys, updateCounts);
+        }
+
+        statement.clearBatch();
+
+        for (int offset = 0; offset < rows.size(); offset += batchSize) {
+            int end = Math.min(offset + batchSize, rows.size());
+
+            for (List<Object> row : rows.subList(offset, end)) {
+                bind(statement, row);
+                statement.addBatch();
+            }
+
+            int[] counts = statement.executeBatch();
+            System.arraycopy(counts, 0, updateCounts, offset, Math.min(counts.length, end - offset));
+
+            if (generatesKeys) {
+                keys.addAll(generatedKeys(statement));
+            }
+        }
+
+        return new BatchResult(keys, updateCounts);
+    }
+
+    /**
+     * Binds the given values to the question mark placeholders of the
+     * prepared statement, in the same order they're given in.
+     *
+     * @param statement The statement to bind the values to.
+     * @param bindings  The values to bind.
+     * @throws SQLException
+     */
+    protected final void bind(PreparedStatement statement, List<Object> bindings) throws SQLException
+    {
+        for (int i = 0; i < bindings.size(); i++) {
+            Object value = bindings.get(i);
+
+            if (value == null) {
+                statement.setNull(i + 1, Types.NULL);
+            } else {
+                statement.setObject(i + 1, value);
+            }
+        }
+    }
+
+    /**
+     * Checks to see if the given statement creates new rows, and
+     * generates keys, only INSERT and REPLACE statements do,
+     * upserts are built as INSERT statements as well.
+     *
+     * @param statement The statement to check.
+     * @return Boolean
+     */
+    private boolean generatesKeys(StatementContract statement)
+    {
+        String name = statement.toString();
+
+        return name.equals("INSERT") || name.equals("REPLACE");
+    }
+
+    /**
+     * Reads the generated keys from the given prepared statement, if it
+     * was prepared by the database, the keys are only read if the
+     * statement generates them, statements prepared elsewhere
+     * always has their keys read.
+     *
+     * @param query     The prepared statement that was executed.
+     * @param statement The statement type, or null if it is unknown.
+     * @return ArrayList
+     * @throws SQLException
+     */
+    private ArrayList<Long> generatedKeys(PreparedStatement query, StatementContract statement) throws SQLException
+    {
+        if (statement != null && !generatesKeys(statement)) {
+            return new ArrayList<>();
+        }
+
+        return generatedKeys(query);
+    }
+
+    /**
+     * Reads the generated keys from the given statement.
+     *
+     * @param statement The statement that was executed.
+     * @return ArrayList
+     * @throws SQLException
+     */
+    private ArrayList<Long> generatedKeys(Statement statement) throws SQLException
+    {
+        ArrayList<Long> keys = new ArrayList();
+
+        try (ResultSet key = statement.getGeneratedKeys()) {
+            while (key.next()) {
+                keys.add(key.getLong(1));
+            }
+        }
+
+        return keys;
+    }
+
+    /**
+     * Wraps the update count of a statement that didn't produce a result set
+     * in a disconnected result set, the result set is built locally with a
+     * single row and column, labeled the same way as "SELECT count"
+     * would be, instead of sending a second query to the database.
+     *
+     * @param updateCount The update count of the statement.
+     * @return ResultSet
+     * @throws SQLException
+     */
+    private ResultSet updateCount(int updateCount) throws SQLException
+    {
+        lastUpdate = updateCount;
+
+        RowSetMetaDataImpl meta = new RowSetMetaDataImpl();
+        meta.setColumnCount(1);
+        meta.setColumnLabel(1, String.valueOf(updateCount));
+        meta.setColumnName(1, String.valueOf(updateCount));
+        meta.setColumnType(1, Types.INTEGER);
+
+        CachedRowSet rowSet = rowSetFactory().createCachedRowSet();
+        rowSet.setMetaData(meta);
+
+        rowSet.moveToInsertRow();
+        rowSet.updateInt(1, updateCount);
+        rowSet.insertRow();
+        rowSet.moveToCurrentRow();
+        rowSet.beforeFirst();
+
+        return rowSet;
+    }
+
+    /**
+     * Copies the given result set into a disconnected result set, allowing the
+     * result to be read after the connection has been handed back to the pool.
+     *
+     * @param result The result set to disconnect.
+     * @return ResultSet
+     * @throws SQLException
+     */
+    private ResultSet disconnect(ResultSet result) throws SQLException
+    {
+        try (ResultSet source = result) {
+            CachedRowSet rowSet = rowSetFactory().createCachedRowSet();
+            rowSet.populate(source);
+
+            return rowSet;
+        }
+    }
+
+    /**
+     * Returns the factory used to create disconnected result sets.
+     *
+     * @return RowSetFactory
+     * @throws SQLException
+     */
+    private static RowSetFactory rowSetFactory() throws SQLException
+    {
+        if (rowSetFactory == null) {
+            rowSetFactory = RowSetProvider.newFactory();
+        }
+
+        return rowSetFactory;
+    }
+
+    private static class InFlightQuery
+    {
+
+        private final long version;
+        private final CompletableFuture<Collection> future = new CompletableFuture<>();
+
+        InFlightQuery(long version)
+        {
+            this.version = version;
+        }
     }
 }
@@ -1,5 +1,6 @@
 package com.senither.library.database.contacts;
 
+import com.senither.library.database.DatabaseType;
 import java.sql.SQLException;
 
 public interface DatabaseContract
@@ -23,6 +24,14 @@ public interface DatabaseContract
      */
     public abstract StatementContract getStatement(String query) throws SQLException;
 
+    /**
+     * Returns the type of the database, this is used to pick
+     * the SQL dialect for queries that differs between types.
+     *
+     * @return DatabaseType
+     */
+    public abstract DatabaseType getType();
+
     /**
      * Attempts to find out if the parsed string is a table.
      *
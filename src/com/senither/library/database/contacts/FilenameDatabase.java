@@ -45,6 +45,8 @@ public abstract class FilenameDatabase extends Database
         super(library);
 
         file = null;
+
+        usesSingleConnection();
     }
 
     /**
@@ -60,6 +62,20 @@ public abstract class FilenameDatabase extends Database
         super(library);
 
         setFile(directory, filename, extension);
+
+        usesSingleConnection();
+    }
+
+    /**
+     * Limits the connection pool to a single connection, file databases
+     * only allow one writer at a time, and in-memory databases
+     * only exist for as long as their connection is open, so
+     * while a prepared statement or cursor is open, every
+     * other query fails instead of waiting for it.
+     */
+    private void usesSingleConnection()
+    {
+        poolSettings.setMinimumSize(1).setMaximumSize(1);
     }
 
     /**
@@ -3,19 +3,59 @@ package com.senither.library.database.contacts;
 import com.senither.library.database.utils.Clause;
 import com.senither.library.database.utils.OperatorType;
 import com.senither.library.database.utils.QueryBuilder;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 public abstract class Grammar
 {
 
     /**
-     * The query SQL string, this string will be appended to
-     * and formated by the addPart and removeLast methods.
+     * The query SQL string builder, the query is rendered in a single
+     * pass by appending each part of the query to the builder.
      *
-     * @var String
+     * @var StringBuilder
      */
-    protected String query;
+    protected final StringBuilder query = new StringBuilder(128);
+
+    /**
+     * The maximum amount of identifiers that will be kept in the identifier
+     * cache, the least recently used identifiers are evicted once the
+     * cache is full, so dynamically built column names can't
+     * grow the cache forever.
+     *
+     * @var Integer
+     */
+    private static final int MAX_IDENTIFIERS = 2048;
+
+    /**
+     * The quoted version of the most recently formatted identifiers, keyed by
+     * the raw identifier, most queries reuse the same handful of tables
+     * and columns, so they only have to be split and quoted once.
+     *
+     * @var Map
+     */
+    private static final Map<String, String> IDENTIFIERS = Collections.synchronizedMap(new LinkedHashMap<String, String>(16, 0.75F, true)
+    {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, String> eldest)
+        {
+            return size() > MAX_IDENTIFIERS;
+        }
+    });
+
+    /**
+     * The values that should be bound to the query placeholders,
+     * values are added in the same order as their
+     * placeholders are added to the query.
+     *
+     * @var List
+     */
+    protected final List<Object> bindings = new ArrayList<>();
 
     /**
      * A list a SQL operators, this is used to compare and
@@ -29,7 +69,7 @@ public abstract class Grammar
     "&", "|", "^", "<<", ">>",
     "rlike", "regexp", "not regexp",
     "~", "~*", "!~*", "similar to",
-    "not similar to"
+    "not similar to", "in", "not in"
     );
 
     /**
@@ -59,26 +99,75 @@ public abstract class Grammar
     protected abstract String finalize(QueryBuilder builder);
 
     /**
-     * Checks to see if a string is numeric, this will help
-     * determine how to format values into the query.
+     * Returns the values that should be bound to the query placeholders,
+     * the list is populated while the query is being formatted.
+     *
+     * @return List
+     */
+    public List<Object> getBindings()
+    {
+        return bindings;
+    }
+
+    /**
+     * Collects the values that should be bound to the query placeholders,
+     * without formatting the query, this is used when the formatted
+     * query for the shape of the builder has already been cached.
      *
-     * @param string The string to check.
-     * @return Boolean
+     * @param builder The query builder to read the values from.
+     * @return List
      */
-    protected boolean isNumeric(String string)
+    public List<Object> bind(QueryBuilder builder)
     {
-        return string.matches("[-+]?\\d*\\.?\\d+");
+        bindWhereClause(builder);
+
+        return bindings;
     }
 
     /**
-     * Adds the given part to the query.
+     * Adds a value to the list of bindings, returning
+     * the placeholder to use in the query.
+     *
+     * @param value The value to bind.
+     * @return String
+     */
+    protected String parameter(Object value)
+    {
+        bindings.add(value);
+
+        return "?";
+    }
+
+    /**
+     * Adds the given part to the query, trimming any
+     * whitespace from the end of the query first.
      *
      * @param part The string to add.
      * @return Grammar
      */
     public Grammar addPart(String part)
     {
-        query = query.trim() + part;
+        int length = query.length();
+
+        while (length > 0 && Character.isWhitespace(query.charAt(length - 1))) {
+            length--;
+        }
+
+        query.setLength(length);
+        query.append(part);
+
+        return this;
+    }
+
+    /**
+     * Appends the given field to the query, formatted using dot-notation.
+     *
+     * @param field The field to append.
+     * @return Grammar
+     */
+    protected Grammar appendField(String field)
+    {
+        query.append(formatField(field));
 
         return this;
     }
@@ -92,76 +181,207 @@ public abstract class Grammar
      */
     protected Grammar removeLast(int characters)
     {
-        query = query.substring(0, query.length() - characters);
+        query.setLength(query.length() - characters);
 
         return this;
     }
 
     /**
-     * Formats a query field, splitting it up using dot-notation.
+     * Wraps the given name in backticks, without splitting it up.
+     *
+     * @param name The name to quote.
+     * @return String
+     */
+    protected String quote(String name)
+    {
+        return new StringBuilder(name.length() + 2).append('`').append(name).append('`').toString();
+    }
+
+    /**
+     * Formats a query field, splitting it up using dot-notation, fields
+     * containing a parenthesis are treated as expressions, and
+     * are used as they are, without being quoted.
      *
      * @param field The field to format.
      * @return String
      */
     protected String formatField(String field)
     {
-        field = field.trim();
+        String formatted = IDENTIFIERS.get(field);
 
-        if (field.contains(" ")) {
+        if (formatted == null) {
+            formatted = quoteField(field.trim());
+
+            IDENTIFIERS.put(field, formatted);
+        }
+
+        return formatted;
+    }
+
+    /**
+     * Quotes the given trimmed field, splitting it up using dot-notation.
+     *
+     * @param field The field to quote.
+     * @return String
+     */
+    private String quoteField(String field)
+    {
+        if (field.indexOf(' ') >= 0) {
             String[] both = field.split(" ");
 
             if (both.length == 3 && both[1].equalsIgnoreCase("as")) {
-                return String.format("%s AS '%s'", formatField(both[0]), both[2]);
+                return formatField(both[0]) + " AS '" + both[2] + "'";
             }
         }
 
-        if (field.contains(".")) {
-            String[] both = field.split("\\.");
+        // Expressions like COUNT(*) or SUM(`points`) are already
+        // formatted by the caller, and are used as they are.
+        if (field.indexOf('(') >= 0) {
+            return field;
+        }
 
-            if (both.length == 2) {
-                if (both[1].trim().equals("*")) {
-                    return String.format("`%s`.*", both[0]);
-                }
+        int dot = field.indexOf('.');
+        if (dot >= 0 && dot == field.lastIndexOf('.') && dot < field.length() - 1) {
+            String table = field.substring(0, dot);
+            String column = field.substring(dot + 1);
 
-                return String.format("`%s`.`%s`", both[0], both[1]);
+            if (column.trim().equals("*")) {
+                return quote(table) + ".*";
             }
+
+            return quote(table) + "." + quote(column);
         }
 
-        return String.format("`%s`", field);
+        return quote(field);
+    }
+
+    /**
+     * Adds the values of the where clauses of the query builder to the list
+     * of bindings, in the same order as buildWhereClause binds them.
+     *
+     * @param builder The query builder to read the clauses from.
+     */
+    protected void bindWhereClause(QueryBuilder builder)
+    {
+        bindClauses(builder.getWhereClauses());
+    }
+
+    /**
+     * Adds the values of the given clauses to the list of bindings.
+     *
+     * @param clauses The clauses to read the values from.
+     */
+    protected void bindClauses(List<Clause> clauses)
+    {
+        clauses.stream().forEach((clause) -> {
+            if (clause.isList()) {
+                bindList(clause);
+            } else {
+                bindings.add(clause.getTwo());
+            }
+        });
     }
 
+    /**
+     * Appends the where clauses of the query builder to the query, each
+     * value is bound as a parameter, and the clauses are joined
+     * by the operator of the clause before them.
+     *
+     * @param builder The query builder to read the clauses from.
+     */
     protected void buildWhereClause(QueryBuilder builder)
     {
-        if (builder.getWhereClauses().isEmpty()) {
+        buildClauses(" WHERE ", builder.getWhereClauses());
+    }
+
+    /**
+     * Appends the given clauses to the query after the given keyword, each
+     * value is bound as a parameter, and the clauses are joined
+     * by the operator of the clause before them.
+     *
+     * @param keyword The keyword to start the clauses with.
+     * @param clauses The clauses to append.
+     */
+    protected void buildClauses(String keyword, List<Clause> clauses)
+    {
+        if (clauses.isEmpty()) {
             return;
         }
 
-        addPart(" WHERE");
-        int orderLength = 0;
+        query.append(keyword);
 
-        for (Clause clause : builder.getWhereClauses()) {
-
-            String string = String.format(" %s %s",
-            /* >_> */ formatField(clause.getOne()), clause.getIdentifier()
-            );
+        for (int i = 0; i < clauses.size(); i++) {
+            Clause clause = clauses.get(i);
 
             if (clause.getOrder() == null) {
                 clause.setOrder(OperatorType.AND);
             }
 
-            String field = clause.getTwo().toString();
-            if (!isNumeric(field)) {
-                field = String.format("'%s'", field);
+            if (i > 0) {
+                query.append(' ').append(clauses.get(i - 1).getOrder().getOperator()).append(' ');
+            }
+
+            if (clause.isList()) {
+                appendList(clause);
+                continue;
             }
 
-            String operator = clause.getOrder().getOperator();
+            appendField(clause.getOne());
+            query.append(' ').append(clause.getIdentifier()).append(' ').append(parameter(clause.getTwo()));
+        }
+    }
+
+    /**
+     * Appends a clause comparing a field against a list of values, like an IN
+     * clause, every value in the list is bound as its own parameter, empty
+     * lists are replaced with a condition that is always true or false.
+     *
+     * @param clause The clause to append.
+     */
+    protected void appendList(Clause clause)
+    {
+        Collection<?> values = (Collection<?>) clause.getTwo();
+
+        if (values.isEmpty()) {
+            query.append(clause.getIdentifier().trim().toLowerCase().startsWith("not") ? "1 = 1" : "0 = 1");
+
+            return;
+        }
+
+        appendField(clause.getOne());
+        query.append(' ').append(clause.getIdentifier()).append(" (");
+
+        bindList(clause);
+
+        for (int i = 0; i < clause.getListSize(); i++) {
+            if (i > 0) {
+                query.append(", ");
+            }
+
+            query.append('?');
+        }
+
+        query.append(')');
+    }
+
+    /**
+     * Binds every value in the list of the given clause, repeating the
+     * last value until the list fills up the padded list size.
+     *
+     * @param clause The clause to bind the list of.
+     */
+    private void bindList(Clause clause)
+    {
+        Collection<?> values = (Collection<?>) clause.getTwo();
+        Object last = null;
 
-            orderLength = operator.length() + 2;
-            addPart(String.format(string + " %s %s ", field, operator));
+        for (Object value : values) {
+            bindings.add(value);
+            last = value;
         }
 
-        if (orderLength > 0) {
-            removeLast(orderLength);
+        for (int i = values.size(); i < clause.getListSize(); i++) {
+            bindings.add(last);
         }
     }
 }
@@ -0,0 +1,20 @@
+package com.senither.library.database.contacts;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+@FunctionalInterface
+public interface ResultHandler<T>
+{
+
+    /**
+     * Handles the result of a query, the result set is only valid
+     * while the handler is running, it will be closed and the
+     * connection will be handed back once it returns.
+     *
+     * @param result The result of the query.
+     * @return The handled result.
+     * @throws SQLException
+     */
+    public T handle(ResultSet result) throws SQLException;
+}
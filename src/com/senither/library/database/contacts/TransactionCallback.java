@@ -0,0 +1,19 @@
+package com.senither.library.database.contacts;
+
+import com.senither.library.database.Transaction;
+import java.sql.SQLException;
+
+@FunctionalInterface
+public interface TransactionCallback
+{
+
+    /**
+     * Runs the work that should happen inside the transaction, every
+     * query sent through the database on the same thread while the
+     * callback is running shares the transaction connection.
+     *
+     * @param transaction The running transaction.
+     * @throws SQLException
+     */
+    public void run(Transaction transaction) throws SQLException;
+}
@@ -7,6 +7,7 @@ import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.NoSuchElementException;
@@ -15,65 +16,214 @@ public class Collection implements Cloneable, Iterable<DataRow>
 {
 
     private final HashMap<String, String> keys;
-    private final List<DataRow> items;
+    private final Schema schema;
+    private Map<String, Column> columns;
+    private Column[] reads;
+    private int size;
+    private volatile boolean shared;
+    private volatile List<DataRow> items;
 
     public Collection(ResultSet result) throws SQLException
     {
         ResultSetMetaData meta = result.getMetaData();
 
         this.keys = new HashMap<>();
-        this.items = new ArrayList<>();
+        this.columns = new LinkedHashMap<>();
+
+        this.reads = new Column[meta.getColumnCount()];
 
         for (int i = 1; i <= meta.getColumnCount(); i++) {
-            keys.put(meta.getColumnLabel(i), meta.getColumnClassName(i));
+            String label = meta.getColumnLabel(i);
+
+            // Duplicate labels resolve to the first column, the same
+            // way ResultSet#getString(String) resolves them.
+            if (keys.containsKey(label)) {
+                continue;
+            }
+
+            keys.put(label, meta.getColumnClassName(i));
+            columns.put(label, reads[i - 1] = Column.of(meta.getColumnType(i)));
         }
 
-        while (result.next()) {
-            Map<String, Object> array = new HashMap<>();
+        this.schema = new Schema(new ArrayList<>(columns.keySet()));
 
-            for (String key : keys.keySet()) {
-                array.put(key, result.getString(key));
-            }
+        read(result);
+    }
 
-            items.add(new DataRow(array));
+    private Collection(Collection source)
+    {
+        this.keys = source.keys;
+        this.columns = source.columns;
+        this.schema = source.schema;
+        this.reads = source.reads;
+        this.size = source.size;
+        this.shared = true;
+    }
+
+    public Collection copy()
+    {
+        // The copy shares the columns with this collection until either of
+        // them is appended to, every copy builds its own rows, so
+        // relations set on the rows are never shared.
+        shared = true;
+
+        return new Collection(this);
+    }
+
+    public Collection append(ResultSet result) throws SQLException
+    {
+        if (result.getMetaData().getColumnCount() != reads.length) {
+            throw new DatabaseException("Only results with the same columns can be appended to the collection.");
         }
+
+        if (shared) {
+            detach();
+        }
+
+        read(result);
+
+        return this;
     }
 
     public List<DataRow> all()
     {
-        return items;
+        List<DataRow> rows = items;
+
+        if (rows != null) {
+            return rows;
+        }
+
+        synchronized (this) {
+            if (items != null) {
+                return items;
+            }
+
+            rows = new ArrayList<>(size);
+            Column[] values = values();
+
+            for (int row = 0; row < size; row++) {
+                rows.add(row(values, row));
+            }
+
+            items = rows;
+        }
+
+        return rows;
+    }
+
+    public int size()
+    {
+        return size;
+    }
+
+    public boolean isEmpty()
+    {
+        return size == 0;
     }
 
     public List<Object> get(String name)
     {
-        if (!keys.containsKey(name)) {
-            throw new DatabaseException("");
-        }
+        Column column = getColumn(name);
 
-        List<Object> objects = new ArrayList<>();
+        List<Object> objects = new ArrayList<>(size);
 
-        items.stream().forEach((row) -> {
-            objects.add(row.get(name));
-        });
+        for (int row = 0; row < size; row++) {
+            objects.add(column.get(row));
+        }
 
         return objects;
     }
 
     public List<String> getStrings(String name)
     {
-        if (!keys.containsKey(name)) {
-            throw new DatabaseException("");
-        }
+        Column column = getColumn(name);
 
-        List<String> objects = new ArrayList<>();
+        List<String> objects = new ArrayList<>(size);
 
-        items.stream().forEach((row) -> {
-            objects.add((String) row.get(name));
-        });
+        for (int row = 0; row < size; row++) {
+            Object value = column.get(row);
+
+            objects.add(value == null ? null : String.valueOf(value));
+        }
 
         return objects;
     }
 
+    public int[] getInts(String name)
+    {
+        Column column = getColumn(name);
+
+        if (column instanceof Column.IntColumn) {
+            if (((Column.IntColumn) column).isWide()) {
+                throw new DatabaseException("The " + name + " column holds values outside of the integer range, use getLongs instead.");
+            }
+
+            return ((Column.IntColumn) column).ints();
+        }
+
+        throw new DatabaseException("The " + name + " column does not hold integer values, its type is " + keys.get(name));
+    }
+
+    public long[] getLongs(String name)
+    {
+        Column column = getColumn(name);
+
+        if (column instanceof Column.IntColumn) {
+            return ((Column.IntColumn) column).longs();
+        }
+
+        if (column instanceof Column.LongColumn) {
+            return ((Column.LongColumn) column).longs();
+        }
+
+        throw new DatabaseException("The " + name + " column does not hold long values, its type is " + keys.get(name));
+    }
+
+    public double[] getDoubles(String name)
+    {
+        Column column = getColumn(name);
+
+        if (column instanceof Column.DoubleColumn) {
+            return ((Column.DoubleColumn) column).doubles();
+        }
+
+        double[] values = new double[size];
+
+        if (column instanceof Column.IntColumn) {
+            for (int row = 0; row < size; row++) {
+                values[row] = ((Column.IntColumn) column).getLong(row);
+            }
+
+            return values;
+        }
+
+        if (column instanceof Column.LongColumn) {
+            for (int row = 0; row < size; row++) {
+                values[row] = ((Column.LongColumn) column).getLong(row);
+            }
+
+            return values;
+        }
+
+        throw new DatabaseException("The " + name + " column does not hold numeric values, its type is " + keys.get(name));
+    }
+
+    public boolean isNull(String name, int row)
+    {
+        Column column = getColumn(name);
+
+        if (row < 0 || row >= size) {
+            throw new IndexOutOfBoundsException("Row: " + row + ", Size: " + size);
+        }
+
+        return column.isNull(row);
+    }
+
+    public Schema getSchema()
+    {
+        return schema;
+    }
+
     public HashMap<String, String> getKeys()
     {
         return keys;
@@ -85,15 +235,84 @@ public class Collection implements Cloneable, Iterable<DataRow>
         return new CollectionIterator();
     }
 
+    private void detach()
+    {
+        Map<String, Column> copies = new LinkedHashMap<>();
+        Column[] copiedReads = new Column[reads.length];
+
+        for (Map.Entry<String, Column> entry : columns.entrySet()) {
+            Column copy = entry.getValue().copy();
+            copies.put(entry.getKey(), copy);
+
+            for (int i = 0; i < reads.length; i++) {
+                if (reads[i] == entry.getValue()) {
+                    copiedReads[i] = copy;
+                }
+            }
+        }
+
+        columns = copies;
+        reads = copiedReads;
+        shared = false;
+    }
+
+    private synchronized void read(ResultSet result) throws SQLException
+    {
+        while (result.next()) {
+            for (int i = 0; i < reads.length; i++) {
+                if (reads[i] != null) {
+                    reads[i].read(result, i + 1);
+                }
+            }
+            size++;
+        }
+
+        columns.values().stream().forEach(Column::trim);
+
+        items = null;
+    }
+
+    private synchronized Column[] values()
+    {
+        return columns.values().toArray(new Column[columns.size()]);
+    }
+
+    private DataRow row(Column[] values, int row)
+    {
+        // Every row shares the schema of the collection, and only
+        // holds its own values, in the same order as the schema.
+        Object[] array = new Object[values.length];
+
+        for (int i = 0; i < values.length; i++) {
+            array[i] = values[i].get(row);
+        }
+
+        return new DataRow(schema, array);
+    }
+
+    private Column getColumn(String name)
+    {
+        Column column = columns.get(name);
+
+        if (column == null) {
+            throw new DatabaseException("The " + name + " column does not exist in the collection.");
+        }
+
+        return column;
+    }
+
     private class CollectionIterator implements Iterator<DataRow>
     {
 
+        private final List<DataRow> rows = items;
+        private final Column[] values = rows == null ? values() : null;
+        private final int length = rows == null ? size : rows.size();
         private int cursor = 0;
 
         @Override
         public boolean hasNext()
         {
-            return cursor < Collection.this.items.size();
+            return cursor < length;
         }
 
         @Override
@@ -103,7 +322,13 @@ public class Collection implements Cloneable, Iterable<DataRow>
                 throw new NoSuchElementException();
             }
 
-            return Collection.this.items.get(cursor++);
+            // Rows are only built as they're iterated over, unless
+            // every row has already been built by all().
+            if (rows != null) {
+                return rows.get(cursor++);
+            }
+
+            return row(values, cursor++);
         }
     }
 }
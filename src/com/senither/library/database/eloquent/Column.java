@@ -0,0 +1,464 @@
+package com.senither.library.database.eloquent;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+
+abstract class Column
+{
+
+    /**
+     * Represents the rows that holds a SQL NULL value.
+     *
+     * @var BitSet
+     */
+    protected final BitSet nulls = new BitSet();
+
+    /**
+     * Represents the amount of values stored in the column.
+     *
+     * @var Integer
+     */
+    protected int size = 0;
+
+    /**
+     * Creates an empty column that stores values of the given JDBC type,
+     * exact decimals, dates and every other type are stored as strings
+     * so they're handed out exactly like the database formats them.
+     *
+     * @param type The JDBC type of the column, from {@link java.sql.Types}.
+     * @return Column
+     */
+    static Column of(int type)
+    {
+        switch (type) {
+            case Types.TINYINT:
+            case Types.SMALLINT:
+            case Types.INTEGER:
+                return new IntColumn();
+
+            case Types.BIGINT:
+                return new LongColumn();
+
+            case Types.REAL:
+            case Types.FLOAT:
+            case Types.DOUBLE:
+                return new DoubleColumn();
+
+            default:
+                return new StringColumn();
+        }
+    }
+
+    /**
+     * Reads a single value of the given JDBC type from the current row of the
+     * result set, boxed the same way a column of the type would hand it out,
+     * this is used to read rows one at a time, without storing them.
+     *
+     * @param result The result set to read from.
+     * @param index  The JDBC column index to read.
+     * @param type   The JDBC type of the column, from {@link java.sql.Types}.
+     * @return Object
+     * @throws SQLException
+     */
+    static Object value(ResultSet result, int index, int type) throws SQLException
+    {
+        switch (type) {
+            case Types.TINYINT:
+            case Types.SMALLINT:
+            case Types.INTEGER: {
+                long value = result.getLong(index);
+
+                if (result.wasNull()) {
+                    return null;
+                }
+
+                return value < Integer.MIN_VALUE || value > Integer.MAX_VALUE ? (Object) value : (Object) (int) value;
+            }
+
+            case Types.BIGINT: {
+                long value = result.getLong(index);
+
+                return result.wasNull() ? null : (Object) value;
+            }
+
+            case Types.REAL:
+            case Types.FLOAT:
+            case Types.DOUBLE: {
+                double value = result.getDouble(index);
+
+                return result.wasNull() ? null : (Object) value;
+            }
+
+            default:
+                return result.getString(index);
+        }
+    }
+
+    /**
+     * Reads the value of the given column index from the current row of the
+     * result set, and appends it to the end of the column.
+     *
+     * @param result The result set to read from.
+     * @param index  The JDBC column index to read.
+     * @throws SQLException
+     */
+    abstract void read(ResultSet result, int index) throws SQLException;
+
+    /**
+     * Returns the boxed value of the given row, or null if the row holds NULL.
+     *
+     * @param row The row index.
+     * @return Object
+     */
+    abstract Object get(int row);
+
+    /**
+     * Trims the storage of the column down to its size, this is
+     * called once every row of a result set has been read.
+     */
+    abstract void trim();
+
+    /**
+     * Returns a deep copy of the column, so values can be appended
+     * to the copy without changing the original column.
+     *
+     * @return Column
+     */
+    abstract Column copy();
+
+    /**
+     * Checks to see if the given row holds a SQL NULL value.
+     *
+     * @param row The row index.
+     * @return Boolean
+     */
+    boolean isNull(int row)
+    {
+        return nulls.get(row);
+    }
+
+    /**
+     * Returns the amount of values stored in the column.
+     *
+     * @return Integer
+     */
+    int size()
+    {
+        return size;
+    }
+
+    /**
+     * Marks the given row as NULL if the last value read was NULL.
+     *
+     * @param result The result set the value was read from.
+     * @throws SQLException
+     */
+    protected void markNull(ResultSet result) throws SQLException
+    {
+        if (result.wasNull()) {
+            nulls.set(size);
+        }
+    }
+
+    /**
+     * Copies the NULL markers and the size of the column to the given copy.
+     *
+     * @param <T>  The type of the column.
+     * @param copy The copy of the column.
+     * @return Column
+     */
+    protected <T extends Column> T copyTo(T copy)
+    {
+        copy.nulls.or(nulls);
+        copy.size = size;
+
+        return copy;
+    }
+
+    /**
+     * Returns the capacity the storage should grow to, to fit one more value.
+     *
+     * @param capacity The current capacity.
+     * @return Integer
+     */
+    protected static int grow(int capacity)
+    {
+        return Math.max(16, capacity + (capacity >> 1));
+    }
+
+    static final class IntColumn extends Column
+    {
+
+        private int[] ints = new int[16];
+        private long[] longs = null;
+
+        @Override
+        void read(ResultSet result, int index) throws SQLException
+        {
+            // Unsigned integer columns can hold values outside of the int range, the
+            // column is widened to longs the first time one of them shows up.
+            long value = result.getLong(index);
+            markNull(result);
+
+            if (longs == null && (value < Integer.MIN_VALUE || value > Integer.MAX_VALUE)) {
+                longs = new long[ints.length];
+                for (int i = 0; i < size; i++) {
+                    longs[i] = ints[i];
+                }
+                ints = null;
+            }
+
+            if (longs != null) {
+                if (size == longs.length) {
+                    longs = Arrays.copyOf(longs, grow(longs.length));
+                }
+                longs[size++] = value;
+            } else {
+                if (size == ints.length) {
+                    ints = Arrays.copyOf(ints, grow(ints.length));
+                }
+                ints[size++] = (int) value;
+            }
+        }
+
+        @Override
+        Object get(int row)
+        {
+            if (isNull(row)) {
+                return null;
+            }
+
+            return isWide() ? (Object) longs[row] : (Object) ints[row];
+        }
+
+        @Override
+        void trim()
+        {
+            if (isWide()) {
+                longs = Arrays.copyOf(longs, size);
+            } else {
+                ints = Arrays.copyOf(ints, size);
+            }
+        }
+
+        @Override
+        Column copy()
+        {
+            IntColumn copy = copyTo(new IntColumn());
+            copy.ints = ints == null ? null : Arrays.copyOf(ints, ints.length);
+            copy.longs = longs == null ? null : Arrays.copyOf(longs, longs.length);
+
+            return copy;
+        }
+
+        boolean isWide()
+        {
+            return longs != null;
+        }
+
+        int getInt(int row)
+        {
+            return isWide() ? (int) longs[row] : ints[row];
+        }
+
+        long getLong(int row)
+        {
+            return isWide() ? longs[row] : ints[row];
+        }
+
+        int[] ints()
+        {
+            return Arrays.copyOf(ints, size);
+        }
+
+        long[] longs()
+        {
+            if (isWide()) {
+                return Arrays.copyOf(longs, size);
+            }
+
+            long[] values = new long[size];
+            for (int i = 0; i < size; i++) {
+                values[i] = ints[i];
+            }
+
+            return values;
+        }
+    }
+
+    static final class LongColumn extends Column
+    {
+
+        private long[] longs = new long[16];
+
+        @Override
+        void read(ResultSet result, int index) throws SQLException
+        {
+            long value = result.getLong(index);
+            markNull(result);
+
+            if (size == longs.length) {
+                longs = Arrays.copyOf(longs, grow(longs.length));
+            }
+            longs[size++] = value;
+        }
+
+        @Override
+        Object get(int row)
+        {
+            return isNull(row) ? null : (Object) longs[row];
+        }
+
+        @Override
+        void trim()
+        {
+            longs = Arrays.copyOf(longs, size);
+        }
+
+        @Override
+        Column copy()
+        {
+            LongColumn copy = copyTo(new LongColumn());
+            copy.longs = Arrays.copyOf(longs, longs.length);
+
+            return copy;
+        }
+
+        long getLong(int row)
+        {
+            return longs[row];
+        }
+
+        long[] longs()
+        {
+            return Arrays.copyOf(longs, size);
+        }
+    }
+
+    static final class DoubleColumn extends Column
+    {
+
+        private double[] doubles = new double[16];
+
+        @Override
+        void read(ResultSet result, int index) throws SQLException
+        {
+            double value = result.getDouble(index);
+            markNull(result);
+
+            if (size == doubles.length) {
+                doubles = Arrays.copyOf(doubles, grow(doubles.length));
+            }
+            doubles[size++] = value;
+        }
+
+        @Override
+        Object get(int row)
+        {
+            return isNull(row) ? null : (Object) doubles[row];
+        }
+
+        @Override
+        void trim()
+        {
+            doubles = Arrays.copyOf(doubles, size);
+        }
+
+        @Override
+        Column copy()
+        {
+            DoubleColumn copy = copyTo(new DoubleColumn());
+            copy.doubles = Arrays.copyOf(doubles, doubles.length);
+
+            return copy;
+        }
+
+        double getDouble(int row)
+        {
+            return doubles[row];
+        }
+
+        double[] doubles()
+        {
+            return Arrays.copyOf(doubles, size);
+        }
+    }
+
+    static final class StringColumn extends Column
+    {
+
+        private int[] codes = new int[16];
+        private final List<String> dictionary = new ArrayList<>();
+        private HashMap<String, Integer> lookup = new HashMap<>();
+
+        @Override
+        void read(ResultSet result, int index) throws SQLException
+        {
+            // Every distinct string is only stored once, rows holding the
+            // same value just points to the same dictionary entry.
+            String value = result.getString(index);
+
+            if (size == codes.length) {
+                codes = Arrays.copyOf(codes, grow(codes.length));
+            }
+
+            if (value == null) {
+                nulls.set(size);
+                codes[size++] = -1;
+                return;
+            }
+
+            if (lookup == null) {
+                lookup = new HashMap<>();
+
+                for (int i = 0; i < dictionary.size(); i++) {
+                    lookup.put(dictionary.get(i), i);
+                }
+            }
+
+            Integer code = lookup.get(value);
+            if (code == null) {
+                code = dictionary.size();
+                dictionary.add(value);
+                lookup.put(value, code);
+            }
+
+            codes[size++] = code;
+        }
+
+        @Override
+        Object get(int row)
+        {
+            return getString(row);
+        }
+
+        @Override
+        void trim()
+        {
+            codes = Arrays.copyOf(codes, size);
+            lookup = null;
+        }
+
+        @Override
+        Column copy()
+        {
+            StringColumn copy = copyTo(new StringColumn());
+            copy.codes = Arrays.copyOf(codes, codes.length);
+            copy.dictionary.addAll(dictionary);
+            copy.lookup = null;
+
+            return copy;
+        }
+
+        String getString(int row)
+        {
+            return isNull(row) ? null : dictionary.get(codes[row]);
+        }
+    }
+}
@@ -0,0 +1,240 @@
+package com.senither.library.database.eloquent;
+
+import com.senither.library.database.pool.PooledConnection;
+import com.senither.library.exceptions.DatabaseException;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+public class Cursor implements Iterator<DataRow>, Iterable<DataRow>, AutoCloseable
+{
+
+    /**
+     * Represents the connection the cursor is reading from, the connection
+     * stays borrowed until the cursor has been closed.
+     *
+     * @var PooledConnection
+     */
+    private final PooledConnection connection;
+
+    /**
+     * Represents the statement the cursor was created from.
+     *
+     * @var PreparedStatement
+     */
+    private final PreparedStatement statement;
+
+    /**
+     * Represents the result set the rows are read from.
+     *
+     * @var ResultSet
+     */
+    private final ResultSet result;
+
+    /**
+     * Represents the schema shared by every row read from the cursor.
+     *
+     * @var Schema
+     */
+    private final Schema schema;
+
+    /**
+     * Represents the JDBC column index of each column in the schema.
+     *
+     * @var int[]
+     */
+    private final int[] indexes;
+
+    /**
+     * Represents the JDBC type of each column in the schema, values are
+     * read using the same types as the columns of a collection, so
+     * rows from a cursor and a collection holds the same values.
+     *
+     * @var int[]
+     */
+    private final int[] types;
+
+    /**
+     * Determines if the result set has been moved to the next
+     * row, without the row being handed out yet.
+     *
+     * @var Boolean
+     */
+    private boolean advanced = false;
+
+    /**
+     * Determines if the result set has another row.
+     *
+     * @var Boolean
+     */
+    private boolean hasRow = false;
+
+    /**
+     * Determines if the cursor has been closed.
+     *
+     * @var Boolean
+     */
+    private boolean closed = false;
+
+    /**
+     * Creates a new cursor instance, the cursor takes ownership of the
+     * connection, statement and result set, and closes all of them
+     * once the last row has been read, or the cursor is closed.
+     *
+     * @param connection The connection the cursor is reading from.
+     * @param statement  The statement the cursor was created from.
+     * @param result     The result set to read the rows from.
+     * @throws SQLException
+     */
+    public Cursor(PooledConnection connection, PreparedStatement statement, ResultSet result) throws SQLException
+    {
+        this.connection = connection;
+        this.statement = statement;
+        this.result = result;
+
+        ResultSetMetaData meta = result.getMetaData();
+
+        List<String> labels = new ArrayList<>();
+        int[] columns = new int[meta.getColumnCount()];
+        int[] columnTypes = new int[meta.getColumnCount()];
+
+        // Duplicate labels resolve to the first column, the same
+        // way ResultSet#getString(String) resolves them.
+        for (int i = 1; i <= meta.getColumnCount(); i++) {
+            String label = meta.getColumnLabel(i);
+
+            if (!labels.contains(label)) {
+                columns[labels.size()] = i;
+                columnTypes[labels.size()] = meta.getColumnType(i);
+                labels.add(label);
+            }
+        }
+
+        schema = new Schema(labels);
+        indexes = Arrays.copyOf(columns, labels.size());
+        types = Arrays.copyOf(columnTypes, labels.size());
+    }
+
+    @Override
+    public boolean hasNext()
+    {
+        if (closed) {
+            return false;
+        }
+
+        if (!advanced) {
+            try {
+                hasRow = result.next();
+                advanced = true;
+            } catch (SQLException e) {
+                close();
+
+                throw new DatabaseException("Failed to read the next row from the cursor: " + e.getMessage());
+            }
+
+            if (!hasRow) {
+                close();
+            }
+        }
+
+        return hasRow;
+    }
+
+    @Override
+    public DataRow next()
+    {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+
+        advanced = false;
+
+        try {
+            Object[] values = new Object[indexes.length];
+
+            for (int i = 0; i < indexes.length; i++) {
+                values[i] = Column.value(result, indexes[i], types[i]);
+            }
+
+            return new DataRow(schema, values);
+        } catch (SQLException e) {
+            close();
+
+            throw new DatabaseException("Failed to read the row from the cursor: " + e.getMessage());
+        }
+    }
+
+    @Override
+    public Iterator<DataRow> iterator()
+    {
+        return this;
+    }
+
+    /**
+     * Returns a sequential stream of the remaining rows in the
+     * cursor, closing the stream will close the cursor.
+     *
+     * @return Stream
+     */
+    public Stream<DataRow> stream()
+    {
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(this, Spliterator.ORDERED | Spliterator.NONNULL), false).onClose(this::close);
+    }
+
+    /**
+     * Returns the schema shared by every row read from the cursor.
+     *
+     * @return Schema
+     */
+    public Schema getSchema()
+    {
+        return schema;
+    }
+
+    /**
+     * Checks to see if the cursor has been closed.
+     *
+     * @return Boolean
+     */
+    public boolean isClosed()
+    {
+        return closed;
+    }
+
+    /**
+     * Closes the result set and statement, and hands the
+     * connection back to the pool it was borrowed from.
+     */
+    @Override
+    public void close()
+    {
+        if (closed) {
+            return;
+        }
+
+        closed = true;
+        hasRow = false;
+
+        try {
+            result.close();
+        } catch (SQLException e) {
+        }
+
+        try {
+            statement.close();
+        } catch (SQLException e) {
+        }
+
+        connection.close();
+    }
+}
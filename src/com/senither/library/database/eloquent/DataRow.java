@@ -2,42 +2,68 @@ package com.senither.library.database.eloquent;
 
 import com.senither.library.utils.Carbon;
 import java.text.ParseException;
+import java.util.HashMap;
 import java.util.Map;
 import java.util.Set;
 
 public class DataRow
 {
 
-    private final Map<String, Object> items;
+    private final Schema schema;
+    private final Object[] values;
+    private Map<String, Object> relations;
 
     public DataRow(Map<String, Object> items)
     {
-        this.items = items;
+        this.schema = new Schema(items.keySet().toArray(new String[items.size()]));
+        this.values = items.values().toArray();
+    }
+
+    public DataRow(Schema schema, Object[] values)
+    {
+        this.schema = schema;
+        this.values = values;
+    }
+
+    public Schema getSchema()
+    {
+        return schema;
+    }
+
+    public int size()
+    {
+        return schema.size();
     }
 
     public boolean has(String name)
     {
-        return items.containsKey(name);
+        return schema.has(name);
     }
 
     public Set<String> keySet()
     {
-        return items.keySet();
+        return schema.keySet();
     }
 
     public Object get(String name)
     {
-        if (has(name)) {
-            return items.get(name);
-        }
-
-        return null;
+        return get(schema.indexOf(name), null);
     }
 
     public Object get(String name, Object def)
     {
-        if (has(name)) {
-            return items.get(name);
+        return get(schema.indexOf(name), def);
+    }
+
+    public Object get(int index)
+    {
+        return get(index, null);
+    }
+
+    public Object get(int index, Object def)
+    {
+        if (index >= 0 && index < values.length) {
+            return values[index];
         }
 
         return def;
@@ -45,12 +71,22 @@ public class DataRow
 
     public boolean getBoolean(String name)
     {
-        return getBoolean(name, false);
+        return getBoolean(schema.indexOf(name), false);
     }
 
     public boolean getBoolean(String name, boolean def)
     {
-        Object value = get(name, def);
+        return getBoolean(schema.indexOf(name), def);
+    }
+
+    public boolean getBoolean(int index)
+    {
+        return getBoolean(index, false);
+    }
+
+    public boolean getBoolean(int index, boolean def)
+    {
+        Object value = get(index, def);
 
         if (isString(value)) {
             String str = String.valueOf(value);
@@ -58,29 +94,53 @@ public class DataRow
             return isEqual(str, "1", "true");
         }
 
+        if (value instanceof Number) {
+            return ((Number) value).intValue() != 0;
+        }
+
         return (boolean) value;
     }
 
     public String getString(String name)
     {
-        return getString(name, null);
+        return getString(schema.indexOf(name), null);
     }
 
     public String getString(String name, String def)
     {
-        Object value = get(name, def);
+        return getString(schema.indexOf(name), def);
+    }
+
+    public String getString(int index)
+    {
+        return getString(index, null);
+    }
+
+    public String getString(int index, String def)
+    {
+        Object value = get(index, def);
 
         return String.valueOf(value);
     }
 
     public double getDouble(String path)
     {
-        return getDouble(path, 0.0D);
+        return getDouble(schema.indexOf(path), 0.0D);
     }
 
     public double getDouble(String name, double def)
     {
-        Object value = get(name, def);
+        return getDouble(schema.indexOf(name), def);
+    }
+
+    public double getDouble(int index)
+    {
+        return getDouble(index, 0.0D);
+    }
+
+    public double getDouble(int index, double def)
+    {
+        Object value = get(index, def);
 
         if (isString(value)) {
             String str = String.valueOf(value);
@@ -92,17 +152,31 @@ public class DataRow
             }
         }
 
+        if (value instanceof Number) {
+            return ((Number) value).doubleValue();
+        }
+
         return (double) value;
     }
 
     public int getInt(String name)
     {
-        return getInt(name, 0);
+        return getInt(schema.indexOf(name), 0);
     }
 
     public int getInt(String name, int def)
     {
-        Object value = get(name, def);
+        return getInt(schema.indexOf(name), def);
+    }
+
+    public int getInt(int index)
+    {
+        return getInt(index, 0);
+    }
+
+    public int getInt(int index, int def)
+    {
+        Object value = get(index, def);
 
         if (isString(value)) {
             String str = String.valueOf(value);
@@ -114,17 +188,31 @@ public class DataRow
             }
         }
 
+        if (value instanceof Number) {
+            return ((Number) value).intValue();
+        }
+
         return (int) value;
     }
 
     public long getLong(String name)
     {
-        return getLong(name, 0L);
+        return getLong(schema.indexOf(name), 0L);
     }
 
     public long getLong(String name, long def)
     {
-        Object value = get(name, def);
+        return getLong(schema.indexOf(name), def);
+    }
+
+    public long getLong(int index)
+    {
+        return getLong(index, 0L);
+    }
+
+    public long getLong(int index, long def)
+    {
+        Object value = get(index, def);
 
         if (isString(value)) {
             String str = String.valueOf(value);
@@ -136,18 +224,32 @@ public class DataRow
             }
         }
 
+        if (value instanceof Number) {
+            return ((Number) value).longValue();
+        }
+
         return (long) value;
     }
 
     public Carbon getTimestamp(String name)
     {
-        return getTimestamp(name, null);
+        return getTimestamp(schema.indexOf(name), null);
     }
 
     public Carbon getTimestamp(String name, Carbon def)
+    {
+        return getTimestamp(schema.indexOf(name), def);
+    }
+
+    public Carbon getTimestamp(int index)
+    {
+        return getTimestamp(index, null);
+    }
+
+    public Carbon getTimestamp(int index, Carbon def)
     {
         try {
-            String time = getString(name);
+            String time = getString(index);
 
             return new Carbon(time);
         } catch (ParseException ex) {
@@ -155,14 +257,31 @@ public class DataRow
         }
     }
 
-    private boolean isString(Object name)
+    public boolean hasRelation(String name)
+    {
+        return relations != null && relations.containsKey(name);
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> T getRelation(String name)
     {
-        return getType(name).equalsIgnoreCase("string");
+        return relations == null ? null : (T) relations.get(name);
     }
 
-    private String getType(Object name)
+    public DataRow setRelation(String name, Object value)
+    {
+        if (relations == null) {
+            relations = new HashMap<>();
+        }
+
+        relations.put(name, value);
+
+        return this;
+    }
+
+    private boolean isString(Object name)
     {
-        return name.getClass().getSimpleName();
+        return name instanceof String;
     }
 
     private boolean isEqual(String name, String... items)
@@ -1,24 +1,45 @@
 package com.senither.library.database.eloquent;
 
 import com.senither.library.database.contacts.Database;
+import com.senither.library.database.utils.CompiledQuery;
 import com.senither.library.database.utils.QueryBuilder;
-import com.senither.library.database.utils.QueryHandler;
-import java.lang.annotation.Annotation;
-import java.lang.reflect.InvocationTargetException;
-import java.lang.reflect.Method;
+import com.senither.library.database.utils.UpdateResult;
+import com.senither.library.exceptions.DatabaseException;
+import java.lang.invoke.MethodHandle;
+import java.sql.SQLException;
+import java.sql.Timestamp;
 import java.util.ArrayList;
-import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
 public abstract class Eloquent extends EloquentDefaultSettings
 {
 
+    public static final String CREATED_AT = "created_at";
+
+    public static final String UPDATED_AT = "updated_at";
+
     protected static Database database;
 
     protected QueryBuilder builder;
 
+    private final List<String> eagerLoads = new ArrayList<>();
+
+    private final Map<String, Object> attributes = new LinkedHashMap<>();
+
+    private final Map<String, Object> original = new HashMap<>();
+
+    private boolean exists = false;
+
     public Eloquent()
     {
         builder = new QueryBuilder(table());
@@ -26,7 +47,22 @@ public abstract class Eloquent extends EloquentDefaultSettings
 
     public static void setConnection(Database connection)
     {
+        if (Eloquent.database != null) {
+            Eloquent.database.getQueryCache().removeInvalidationListener(IdentityMap.LISTENER);
+        }
+
         Eloquent.database = connection;
+
+        if (connection != null) {
+            connection.getQueryCache().addInvalidationListener(IdentityMap.LISTENER);
+        }
+
+        IdentityMap.flushAll();
+    }
+
+    public static void flushCaches()
+    {
+        IdentityMap.flushAll();
     }
 
     public static Database getConnection()
@@ -36,12 +72,50 @@ public abstract class Eloquent extends EloquentDefaultSettings
 
     public Collection find(int id)
     {
-        return builder().table(table()).where(primaryKey(), id).get();
+        long lifetime = cacheLifetime().toMillis();
+
+        // Only plain primary key lookups are served by the identity
+        // map, since joins and constraints changes the result.
+        boolean cacheable = lifetime > 0
+                && builder.getWhereClauses().isEmpty()
+                && builder.getJoins().isEmpty();
+
+        builder().table(table()).where(primaryKey(), id);
+
+        if (!cacheable || database == null || database.inTransaction()) {
+            return get();
+        }
+
+        IdentityMap identities = IdentityMap.of(instance().getClass(), table());
+        Collection result = identities.get(id);
+
+        if (result == null) {
+            long version = identities.getVersion();
+
+            result = builder.get();
+
+            if (result != null) {
+                identities.put(id, result, lifetime, version);
+            }
+        }
+
+        return eagerLoad(result);
+    }
+
+    public void flushCache()
+    {
+        IdentityMap identities = IdentityMap.get(instance().getClass());
+
+        if (identities != null) {
+            identities.flush();
+        }
     }
 
     public Collection all()
     {
-        return builder().table(table()).get();
+        builder().table(table());
+
+        return get();
     }
 
     public Eloquent select(String... columns)
@@ -145,39 +219,240 @@ public abstract class Eloquent extends EloquentDefaultSettings
 
     public Eloquent with(String... fields)
     {
-        List<String> methods = new ArrayList<>();
-        methods.addAll(Arrays.asList(fields));
+        Eloquent model = instance();
+        Map<String, MethodHandle> handlers = RelationRegistry.getHandlers(model.getClass());
+        Map<String, MethodHandle> relations = RelationRegistry.getRelations(model.getClass());
 
-        Class<? extends Eloquent> iClass = instance().getClass();
+        for (String field : fields) {
+            MethodHandle handler = handlers.get(field);
 
-        for (Method method : iClass.getMethods()) {
-            if (!methods.contains(method.getName())) {
+            if (handler == null) {
+                if (relations.containsKey(field) && !eagerLoads.contains(field)) {
+                    eagerLoads.add(field);
+                }
                 continue;
             }
 
-            if (method.getAnnotations().length == 0) {
-                continue;
+            try {
+                handler.invokeExact(model, builder);
+            } catch (Throwable ex) {
+                Logger.getLogger(Eloquent.class.getName()).log(Level.SEVERE, null, ex);
             }
+        }
 
-            boolean isQueryHandler = false;
-            for (Annotation an : method.getAnnotations()) {
-                if (an.annotationType().getName().equals(QueryHandler.class.getName())) {
-                    isQueryHandler = true;
-                    break;
-                }
+        return this;
+    }
+
+    public Eloquent fill(DataRow row)
+    {
+        attributes.clear();
+
+        for (String key : row.keySet()) {
+            attributes.put(key, row.get(key));
+        }
+
+        syncOriginal();
+        exists = attributes.get(primaryKey()) != null;
+
+        return this;
+    }
+
+    public Object getAttribute(String name)
+    {
+        return attributes.get(name);
+    }
+
+    public Eloquent setAttribute(String name, Object value)
+    {
+        attributes.put(name, value);
+
+        return this;
+    }
+
+    public Map<String, Object> getAttributes()
+    {
+        return Collections.unmodifiableMap(attributes);
+    }
+
+    public Object getKey()
+    {
+        return attributes.get(primaryKey());
+    }
+
+    public boolean exists()
+    {
+        return exists;
+    }
+
+    public boolean isDirty()
+    {
+        return !getDirty().isEmpty();
+    }
+
+    public boolean isDirty(String name)
+    {
+        return attributes.containsKey(name) && (!original.containsKey(name) || !Objects.equals(original.get(name), attributes.get(name)));
+    }
+
+    public Map<String, Object> getDirty()
+    {
+        // Sorted by column name, so models with the same dirty
+        // columns always compiles to the exact same query.
+        Map<String, Object> dirty = new TreeMap<>();
+
+        for (Map.Entry<String, Object> entry : attributes.entrySet()) {
+            if (isDirty(entry.getKey())) {
+                dirty.put(entry.getKey(), entry.getValue());
             }
+        }
+
+        return dirty;
+    }
+
+    public boolean save()
+    {
+        if (database == null) {
+            throw new DatabaseException("");
+        }
+
+        try {
+            if (exists) {
+                QueryBuilder query = updateQuery();
 
-            if (isQueryHandler) {
-                try {
-                    method.setAccessible(true);
-                    method.invoke(instance(), builder);
-                } catch (IllegalAccessException | IllegalArgumentException | InvocationTargetException ex) {
-                    Logger.getLogger(Eloquent.class.getName()).log(Level.SEVERE, null, ex);
+                if (query != null) {
+                    database.update(query);
+                    syncOriginal();
                 }
+
+                return true;
+            }
+
+            Timestamp now = new Timestamp(System.currentTimeMillis());
+            if (timestamps()) {
+                attributes.putIfAbsent(CREATED_AT, now);
+                attributes.putIfAbsent(UPDATED_AT, now);
             }
+
+            UpdateResult result = database.update(new QueryBuilder(table()).insert(new LinkedHashMap<>(attributes)));
+
+            if (incrementing() && !result.getKeys().isEmpty() && attributes.get(primaryKey()) == null) {
+                attributes.put(primaryKey(), result.getKey());
+            }
+
+            syncOriginal();
+            exists = true;
+
+            return true;
+        } catch (SQLException ex) {
+            Logger.getLogger(Eloquent.class.getName()).log(Level.SEVERE, null, ex);
         }
 
-        return this;
+        return false;
+    }
+
+    public static boolean saveAll(List<? extends Eloquent> models)
+    {
+        if (database == null) {
+            throw new DatabaseException("");
+        }
+
+        // Models are only left saved once the transaction has committed, if it's
+        // rolled back, every model is restored to the state it was in before.
+        List<Runnable> restores = new ArrayList<>(models.size());
+        for (Eloquent model : models) {
+            restores.add(model.snapshot());
+        }
+
+        List<Eloquent> updated = new ArrayList<>();
+
+        try {
+            database.transaction((transaction) -> {
+                // Updates are grouped by their query, models with the same dirty
+                // columns in the same table shares a single JDBC batch.
+                Map<String, List<List<Object>>> batches = new LinkedHashMap<>();
+                Set<String> tables = new HashSet<>();
+
+                for (Eloquent model : models) {
+                    if (!model.exists) {
+                        if (!model.save()) {
+                            throw new SQLException("Failed to insert a " + model.getClass().getSimpleName() + " model.");
+                        }
+                        continue;
+                    }
+
+                    QueryBuilder query = model.updateQuery();
+                    if (query == null) {
+                        continue;
+                    }
+
+                    CompiledQuery compiled = query.compile();
+
+                    batches.computeIfAbsent(compiled.getQuery(), (key) -> new ArrayList<>()).add(compiled.getBindings());
+                    tables.add(model.table());
+                    updated.add(model);
+                }
+
+                if (!batches.isEmpty()) {
+                    database.batch(batches, tables);
+                }
+            });
+
+            updated.stream().forEach(Eloquent::syncOriginal);
+
+            return true;
+        } catch (SQLException ex) {
+            restores.stream().forEach(Runnable::run);
+
+            Logger.getLogger(Eloquent.class.getName()).log(Level.SEVERE, null, ex);
+        } catch (RuntimeException ex) {
+            restores.stream().forEach(Runnable::run);
+
+            throw ex;
+        }
+
+        return false;
+    }
+
+    private QueryBuilder updateQuery()
+    {
+        Map<String, Object> dirty = getDirty();
+
+        if (dirty.isEmpty()) {
+            return null;
+        }
+
+        if (timestamps() && !dirty.containsKey(UPDATED_AT)) {
+            Timestamp now = new Timestamp(System.currentTimeMillis());
+
+            attributes.put(UPDATED_AT, now);
+            dirty.put(UPDATED_AT, now);
+        }
+
+        Object key = original.containsKey(primaryKey()) ? original.get(primaryKey()) : getKey();
+
+        return new QueryBuilder(table()).update(dirty).where(primaryKey(), key);
+    }
+
+    private void syncOriginal()
+    {
+        original.clear();
+        original.putAll(attributes);
+    }
+
+    private Runnable snapshot()
+    {
+        boolean existed = exists;
+        Map<String, Object> attributesBefore = new LinkedHashMap<>(attributes);
+        Map<String, Object> originalBefore = new HashMap<>(original);
+
+        return () -> {
+            exists = existed;
+
+            attributes.clear();
+            attributes.putAll(attributesBefore);
+            original.clear();
+            original.putAll(originalBefore);
+        };
     }
 
     public QueryBuilder builder()
@@ -185,9 +460,69 @@ public abstract class Eloquent extends EloquentDefaultSettings
         return builder;
     }
 
+    public Collection load(Collection parents, String... relations)
+    {
+        Eloquent model = instance();
+        Map<String, MethodHandle> handles = RelationRegistry.getRelations(model.getClass());
+
+        for (String name : relations) {
+            MethodHandle handle = handles.get(name);
+
+            if (handle == null) {
+                throw new DatabaseException("The " + name + " relation does not exist on the " + model.getClass().getSimpleName() + " model.");
+            }
+
+            try {
+                Relation relation = (Relation) handle.invokeExact(model);
+
+                relation.load(name, parents);
+            } catch (DatabaseException ex) {
+                throw ex;
+            } catch (Throwable ex) {
+                Logger.getLogger(Eloquent.class.getName()).log(Level.SEVERE, null, ex);
+            }
+        }
+
+        return parents;
+    }
+
     public Collection get()
     {
-        return builder.get();
+        return eagerLoad(builder.get());
+    }
+
+    public <T> List<T> get(Class<T> type)
+    {
+        return builder.get(type);
+    }
+
+    protected Relation hasMany(String table, String foreignKey)
+    {
+        return hasMany(table, foreignKey, primaryKey());
+    }
+
+    protected Relation hasMany(String table, String foreignKey, String localKey)
+    {
+        return new Relation(table, foreignKey, localKey, true);
+    }
+
+    protected Relation hasOne(String table, String foreignKey)
+    {
+        return hasOne(table, foreignKey, primaryKey());
+    }
+
+    protected Relation hasOne(String table, String foreignKey, String localKey)
+    {
+        return new Relation(table, foreignKey, localKey, false);
+    }
+
+    private Collection eagerLoad(Collection result)
+    {
+        if (result != null && !result.isEmpty() && !eagerLoads.isEmpty()) {
+            load(result, eagerLoads.toArray(new String[eagerLoads.size()]));
+        }
+
+        return result;
     }
 
     @Override
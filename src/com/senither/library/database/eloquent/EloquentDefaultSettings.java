@@ -1,5 +1,7 @@
 package com.senither.library.database.eloquent;
 
+import java.time.Duration;
+
 public abstract class EloquentDefaultSettings
 {
 
@@ -21,4 +23,18 @@ public abstract class EloquentDefaultSettings
     {
         return true;
     }
+
+    /**
+     * Returns the amount of time rows found by their primary key are kept in
+     * the identity map of the model, the identity map is opt-in, it's
+     * disabled by default, and only used by models that override
+     * this with a lifetime above zero, every write to the
+     * table of the model flushes its identity map.
+     *
+     * @return Duration
+     */
+    protected Duration cacheLifetime()
+    {
+        return Duration.ZERO;
+    }
 }
@@ -0,0 +1,194 @@
+package com.senither.library.database.eloquent;
+
+import com.senither.library.database.utils.QueryCache;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+final class IdentityMap
+{
+
+    /**
+     * Represents the maximum amount of rows each model class can keep
+     * in its identity map, the least recently used rows are
+     * evicted to make room for new rows.
+     *
+     * @var Integer
+     */
+    private static final int MAX_ENTRIES = 10000;
+
+    /**
+     * Represents the identity map of every model class that has been used
+     * with a cache lifetime, keyed by the model class.
+     *
+     * @var ConcurrentHashMap
+     */
+    private static final ConcurrentHashMap<Class<?>, IdentityMap> MAPS = new ConcurrentHashMap<>();
+
+    /**
+     * Represents the query cache invalidation listener, evicting every
+     * identity map that belongs to the table that was written to.
+     *
+     * @var Consumer
+     */
+    static final Consumer<String> LISTENER = (table) -> {
+        MAPS.values().stream().filter((map) -> map.table.equals(table)).forEach(IdentityMap::flush);
+    };
+
+    /**
+     * Represents the normalized name of the table the model reads from.
+     *
+     * @var String
+     */
+    private final String table;
+
+    /**
+     * Represents the cached rows, keyed by their primary key, the map is kept
+     * in access order so the least recently used rows are evicted first.
+     *
+     * @var LinkedHashMap
+     */
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75F, true);
+
+    /**
+     * Represents the amount of times the map has been flushed, rows queried
+     * before a flush are never cached, since they might have been read
+     * before the write that flushed the map.
+     *
+     * @var AtomicLong
+     */
+    private final AtomicLong version = new AtomicLong(0L);
+
+    private IdentityMap(String table)
+    {
+        this.table = table;
+    }
+
+    /**
+     * Returns the identity map for the given model class.
+     *
+     * @param model The model class.
+     * @param table The table the model reads from.
+     * @return IdentityMap
+     */
+    static IdentityMap of(Class<? extends Eloquent> model, String table)
+    {
+        return MAPS.computeIfAbsent(model, (key) -> new IdentityMap(QueryCache.normalize(table)));
+    }
+
+    /**
+     * Returns the identity map for the given model class, or null if the model hasn't used one.
+     *
+     * @param model The model class.
+     * @return IdentityMap
+     */
+    static IdentityMap get(Class<? extends Eloquent> model)
+    {
+        return MAPS.get(model);
+    }
+
+    /**
+     * Removes every row from every identity map.
+     */
+    static void flushAll()
+    {
+        MAPS.values().stream().forEach(IdentityMap::flush);
+    }
+
+    /**
+     * Returns a copy of the cached row result for the given primary key, so
+     * relations loaded onto the rows never reaches the cached rows, or
+     * null if the row isn't cached, or has expired.
+     *
+     * @param key The primary key.
+     * @return Collection
+     */
+    synchronized Collection get(Object key)
+    {
+        String id = String.valueOf(key);
+        Entry entry = entries.get(id);
+
+        if (entry == null) {
+            return null;
+        }
+
+        if (entry.expiresAt <= System.currentTimeMillis()) {
+            entries.remove(id);
+
+            return null;
+        }
+
+        return entry.result.copy();
+    }
+
+    /**
+     * Caches a copy of the row result for the given primary key, the result is only
+     * cached if the map hasn't been flushed since the given version
+     * was read, and the lifetime is above zero.
+     *
+     * @param key      The primary key.
+     * @param result   The row result.
+     * @param lifetime The amount of time in milliseconds the row should be cached for.
+     * @param version  The map version read before the row was queried.
+     */
+    synchronized void put(Object key, Collection result, long lifetime, long version)
+    {
+        if (lifetime <= 0 || version != this.version.get()) {
+            return;
+        }
+
+        entries.put(String.valueOf(key), new Entry(result.copy(), System.currentTimeMillis() + lifetime));
+
+        Iterator<String> iterator = entries.keySet().iterator();
+        while (entries.size() > MAX_ENTRIES && iterator.hasNext()) {
+            iterator.next();
+            iterator.remove();
+        }
+    }
+
+    /**
+     * Removes every cached row from the map.
+     */
+    synchronized void flush()
+    {
+        version.incrementAndGet();
+
+        entries.clear();
+    }
+
+    /**
+     * Returns the current version of the map.
+     *
+     * @return Long
+     */
+    long getVersion()
+    {
+        return version.get();
+    }
+
+    /**
+     * Returns the amount of cached rows.
+     *
+     * @return Integer
+     */
+    synchronized int size()
+    {
+        return entries.size();
+    }
+
+    private static class Entry
+    {
+
+        private final Collection result;
+        private final long expiresAt;
+
+        Entry(Collection result, long expiresAt)
+        {
+            this.result = result;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
@@ -0,0 +1,158 @@
+package com.senither.library.database.eloquent;
+
+import com.senither.library.database.utils.QueryBuilder;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+public class Relation
+{
+
+    /**
+     * Represents the table the related rows are stored in.
+     *
+     * @var String
+     */
+    private final String table;
+
+    /**
+     * Represents the column on the related table that points to the parent row.
+     *
+     * @var String
+     */
+    private final String foreignKey;
+
+    /**
+     * Represents the column on the parent row the foreign key points to.
+     *
+     * @var String
+     */
+    private final String localKey;
+
+    /**
+     * Represents if the parent row has many related rows, or just one.
+     *
+     * @var Boolean
+     */
+    private final boolean many;
+
+    /**
+     * Represents the query used to load the related rows, the foreign
+     * key constraint is added to a copy of the query every
+     * time the relation is loaded.
+     *
+     * @var QueryBuilder
+     */
+    private final QueryBuilder query;
+
+    Relation(String table, String foreignKey, String localKey, boolean many)
+    {
+        this.table = table;
+        this.foreignKey = foreignKey;
+        this.localKey = localKey;
+        this.many = many;
+        this.query = new QueryBuilder(table);
+    }
+
+    /**
+     * Returns the query used to load the related rows, constraints and
+     * ordering added to the query applies every time the relation
+     * is loaded, selected columns must include the foreign key.
+     *
+     * @return QueryBuilder
+     */
+    public QueryBuilder getQuery()
+    {
+        return query;
+    }
+
+    public String getTable()
+    {
+        return table;
+    }
+
+    public String getForeignKey()
+    {
+        return foreignKey;
+    }
+
+    public String getLocalKey()
+    {
+        return localKey;
+    }
+
+    public boolean isMany()
+    {
+        return many;
+    }
+
+    /**
+     * Loads the related rows for every row in the given collection using a
+     * single query, and attaches them to their parent rows under the given
+     * name, has-many relations are attached as a list of rows, while
+     * has-one relations are attached as a single row, or null.
+     *
+     * @param name    The name to attach the related rows under.
+     * @param parents The parent rows to load the relation for.
+     */
+    public void load(String name, Collection parents)
+    {
+        List<DataRow> rows = parents.all();
+        String local = label(localKey);
+
+        Set<Object> keys = new LinkedHashSet<>();
+        for (DataRow row : rows) {
+            Object key = row.get(local);
+
+            if (key != null) {
+                keys.add(key);
+            }
+        }
+
+        Map<String, List<DataRow>> children = new HashMap<>();
+
+        if (!keys.isEmpty()) {
+            Collection result = query.copy().whereIn(foreignKey, keys).get();
+
+            if (result != null) {
+                String column = label(foreignKey);
+
+                // Keys are grouped by their string value, since the parent and the
+                // related table can store the same key using different types.
+                for (DataRow child : result) {
+                    Object key = child.get(column);
+
+                    if (key != null) {
+                        children.computeIfAbsent(String.valueOf(key), k -> new ArrayList<>()).add(child);
+                    }
+                }
+            }
+        }
+
+        for (DataRow row : rows) {
+            Object key = row.get(local);
+            List<DataRow> related = key == null ? null : children.get(String.valueOf(key));
+
+            if (many) {
+                row.setRelation(name, related == null ? Collections.<DataRow>emptyList() : related);
+            } else {
+                row.setRelation(name, related == null ? null : related.get(0));
+            }
+        }
+    }
+
+    /**
+     * Returns the result label of the given column, stripping the table prefix.
+     *
+     * @param column The column name.
+     * @return String
+     */
+    private static String label(String column)
+    {
+        return column.substring(column.lastIndexOf('.') + 1);
+    }
+}
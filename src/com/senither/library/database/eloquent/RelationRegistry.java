@@ -0,0 +1,137 @@
+package com.senither.library.database.eloquent;
+
+import com.senither.library.database.utils.QueryBuilder;
+import com.senither.library.database.utils.QueryHandler;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+final class RelationRegistry
+{
+
+    /**
+     * Represents the type every query handler is adapted to, taking
+     * the model instance and the query builder to modify.
+     *
+     * @var MethodType
+     */
+    private static final MethodType HANDLER_TYPE = MethodType.methodType(void.class, Eloquent.class, QueryBuilder.class);
+
+    /**
+     * Represents the type every relation method is adapted to, taking
+     * the model instance and returning the relation it defines.
+     *
+     * @var MethodType
+     */
+    private static final MethodType RELATION_TYPE = MethodType.methodType(Relation.class, Eloquent.class);
+
+    /**
+     * Represents the query handlers and relations of every model class that
+     * has been scanned so far, keyed by the model class, the handlers
+     * and relations are both keyed by the name of their method.
+     *
+     * @var ConcurrentHashMap
+     */
+    private static final ConcurrentHashMap<Class<?>, Metadata> MODELS = new ConcurrentHashMap<>();
+
+    private RelationRegistry()
+    {
+    }
+
+    /**
+     * Returns the query handlers for the given model class, the class is
+     * only scanned for methods annotated with {@link QueryHandler} the
+     * first time it is used, every call after that is a map lookup.
+     *
+     * @param model The model class to get the query handlers for.
+     * @return Map
+     */
+    static Map<String, MethodHandle> getHandlers(Class<? extends Eloquent> model)
+    {
+        return MODELS.computeIfAbsent(model, RelationRegistry::scan).handlers;
+    }
+
+    /**
+     * Returns the relations for the given model class, a relation is any public
+     * method that takes no arguments and returns a {@link Relation}, the
+     * handles returns the relation defined by the given model instance.
+     *
+     * @param model The model class to get the relations for.
+     * @return Map
+     */
+    static Map<String, MethodHandle> getRelations(Class<? extends Eloquent> model)
+    {
+        return MODELS.computeIfAbsent(model, RelationRegistry::scan).relations;
+    }
+
+    /**
+     * Scans the given model class for public methods annotated with {@link QueryHandler}
+     * that takes a query builder, and public methods that returns a relation,
+     * binding each of them to a method handle.
+     *
+     * @param model The model class to scan.
+     * @return Metadata
+     */
+    private static Metadata scan(Class<?> model)
+    {
+        Map<String, MethodHandle> handlers = new HashMap<>();
+        Map<String, MethodHandle> relations = new HashMap<>();
+        MethodHandles.Lookup lookup = MethodHandles.lookup();
+
+        for (Method method : model.getMethods()) {
+            if (method.getParameterCount() == 0 && Relation.class.isAssignableFrom(method.getReturnType())) {
+                try {
+                    method.setAccessible(true);
+
+                    relations.put(method.getName(), lookup.unreflect(method).asType(RELATION_TYPE));
+                } catch (IllegalAccessException | SecurityException ex) {
+                    Logger.getLogger(Eloquent.class.getName()).log(Level.SEVERE, null, ex);
+                }
+                continue;
+            }
+
+            if (!method.isAnnotationPresent(QueryHandler.class)) {
+                continue;
+            }
+
+            Class<?>[] parameters = method.getParameterTypes();
+            if (parameters.length != 1 || !parameters[0].isAssignableFrom(QueryBuilder.class)) {
+                Logger.getLogger(Eloquent.class.getName()).log(Level.WARNING,
+                        "The {0} query handler in {1} must take a single QueryBuilder argument, the handler will be ignored.",
+                        new Object[]{method.getName(), model.getName()}
+                );
+                continue;
+            }
+
+            try {
+                method.setAccessible(true);
+
+                handlers.put(method.getName(), lookup.unreflect(method).asType(HANDLER_TYPE));
+            } catch (IllegalAccessException | SecurityException ex) {
+                Logger.getLogger(Eloquent.class.getName()).log(Level.SEVERE, null, ex);
+            }
+        }
+
+        return new Metadata(handlers, relations);
+    }
+
+    private static class Metadata
+    {
+
+        private final Map<String, MethodHandle> handlers;
+        private final Map<String, MethodHandle> relations;
+
+        Metadata(Map<String, MethodHandle> handlers, Map<String, MethodHandle> relations)
+        {
+            this.handlers = Collections.unmodifiableMap(handlers);
+            this.relations = Collections.unmodifiableMap(relations);
+        }
+    }
+}
@@ -0,0 +1,442 @@
+package com.senither.library.database.eloquent;
+
+import com.senither.library.exceptions.DatabaseException;
+import com.senither.library.utils.Carbon;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.text.ParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+public final class RowMapper<T>
+{
+
+    /**
+     * Represents the row mapper of every class that has been mapped so far,
+     * keyed by the class, so the fields of a class are only resolved once.
+     *
+     * @var ConcurrentHashMap
+     */
+    private static final ConcurrentHashMap<Class<?>, RowMapper<?>> MAPPERS = new ConcurrentHashMap<>();
+
+    /**
+     * Represents the class the rows are mapped to.
+     *
+     * @var Class
+     */
+    private final Class<T> type;
+
+    /**
+     * Represents the no-argument constructor of the class, adapted to return an Object.
+     *
+     * @var MethodHandle
+     */
+    private final MethodHandle constructor;
+
+    /**
+     * Represents the field bindings of the class, keyed by the normalized field
+     * name, the name is lower cased with underscores removed, so both the
+     * guild_id and guildId columns maps to the guildId field.
+     *
+     * @var Map
+     */
+    private final Map<String, Binding> bindings;
+
+    private RowMapper(Class<T> type)
+    {
+        this.type = type;
+
+        MethodHandles.Lookup lookup = MethodHandles.lookup();
+
+        try {
+            Constructor<T> noArgs = type.getDeclaredConstructor();
+            noArgs.setAccessible(true);
+
+            this.constructor = lookup.unreflectConstructor(noArgs).asType(MethodType.methodType(Object.class));
+        } catch (NoSuchMethodException | IllegalAccessException | SecurityException ex) {
+            throw new DatabaseException("The " + type.getName() + " class must have a no-argument constructor to be mapped from a result.", ex);
+        }
+
+        this.bindings = new HashMap<>();
+
+        for (Class<?> current = type; current != null && current != Object.class; current = current.getSuperclass()) {
+            for (Field field : current.getDeclaredFields()) {
+                int modifiers = field.getModifiers();
+
+                if (Modifier.isStatic(modifiers) || Modifier.isFinal(modifiers) || Modifier.isTransient(modifiers)) {
+                    continue;
+                }
+
+                String name = normalize(field.getName());
+
+                // Fields declared by sub classes hides fields with the same name in their parents.
+                if (bindings.containsKey(name)) {
+                    continue;
+                }
+
+                try {
+                    field.setAccessible(true);
+
+                    bindings.put(name, Binding.of(field.getType(), lookup.unreflectSetter(field)));
+                } catch (IllegalAccessException | SecurityException ex) {
+                    throw new DatabaseException("Failed to bind the " + field.getName() + " field of the " + type.getName() + " class.", ex);
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the row mapper for the given class, the class must have a
+     * no-argument constructor, and each non-static, non-final field is
+     * filled from the column with the same name, in either camel
+     * case or snake case, columns without a field are ignored.
+     *
+     * @param <T>  The type of the class.
+     * @param type The class to map rows to.
+     * @return RowMapper
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> RowMapper<T> of(Class<T> type)
+    {
+        return (RowMapper<T>) MAPPERS.computeIfAbsent(type, RowMapper::new);
+    }
+
+    /**
+     * Returns the class the rows are mapped to.
+     *
+     * @return Class
+     */
+    public Class<T> getType()
+    {
+        return type;
+    }
+
+    /**
+     * Maps every remaining row in the given result set to an instance of the class,
+     * columns are bound to fields once per result set, and read with the typed
+     * result set getters matching the type of their field.
+     *
+     * @param result The result set to map.
+     * @return List
+     * @throws SQLException
+     */
+    public List<T> map(ResultSet result) throws SQLException
+    {
+        List<T> rows = new ArrayList<>();
+
+        map(result, rows);
+
+        return rows;
+    }
+
+    /**
+     * Maps every remaining row in the given result set to an instance of
+     * the class, and adds them to the end of the given list.
+     *
+     * @param result The result set to map.
+     * @param rows   The list to add the mapped rows to.
+     * @return List
+     * @throws SQLException
+     */
+    public List<T> map(ResultSet result, List<T> rows) throws SQLException
+    {
+        ResultSetMetaData meta = result.getMetaData();
+
+        List<Integer> indexes = new ArrayList<>();
+        List<Binding> columns = new ArrayList<>();
+
+        for (int i = 1; i <= meta.getColumnCount(); i++) {
+            Binding binding = bindings.get(normalize(meta.getColumnLabel(i)));
+
+            if (binding != null && !columns.contains(binding)) {
+                indexes.add(i);
+                columns.add(binding);
+            }
+        }
+
+        int[] index = new int[indexes.size()];
+        for (int i = 0; i < index.length; i++) {
+            index[i] = indexes.get(i);
+        }
+        Binding[] binding = columns.toArray(new Binding[columns.size()]);
+
+        try {
+            while (result.next()) {
+                Object instance = constructor.invokeExact();
+
+                for (int i = 0; i < index.length; i++) {
+                    binding[i].read(result, index[i], instance);
+                }
+
+                rows.add(type.cast(instance));
+            }
+        } catch (SQLException | RuntimeException ex) {
+            throw ex;
+        } catch (Throwable ex) {
+            throw new DatabaseException("Failed to map a result row to the " + type.getName() + " class.", ex);
+        }
+
+        return rows;
+    }
+
+    /**
+     * Normalizes the given field or column name, lower casing it and removing underscores.
+     *
+     * @param name The name to normalize.
+     * @return String
+     */
+    private static String normalize(String name)
+    {
+        return name.replace("_", "").toLowerCase();
+    }
+
+    private abstract static class Binding
+    {
+
+        protected final MethodHandle setter;
+
+        Binding(MethodHandle setter)
+        {
+            this.setter = setter;
+        }
+
+        abstract void read(ResultSet result, int index, Object target) throws Throwable;
+
+        /**
+         * Creates the binding for a field of the given type, primitive fields
+         * are read and set without boxing, while boxed fields are set
+         * to null if the column holds a SQL NULL value.
+         *
+         * @param type   The type of the field.
+         * @param setter The setter of the field.
+         * @return Binding
+         */
+        static Binding of(Class<?> type, MethodHandle setter)
+        {
+            if (type == int.class) {
+                return new Binding(setter.asType(MethodType.methodType(void.class, Object.class, int.class))) {
+                    @Override
+                    void read(ResultSet result, int index, Object target) throws Throwable
+                    {
+                        setter.invokeExact(target, result.getInt(index));
+                    }
+                };
+            }
+
+            if (type == long.class) {
+                return new Binding(setter.asType(MethodType.methodType(void.class, Object.class, long.class))) {
+                    @Override
+                    void read(ResultSet result, int index, Object target) throws Throwable
+                    {
+                        setter.invokeExact(target, result.getLong(index));
+                    }
+                };
+            }
+
+            if (type == double.class) {
+                return new Binding(setter.asType(MethodType.methodType(void.class, Object.class, double.class))) {
+                    @Override
+                    void read(ResultSet result, int index, Object target) throws Throwable
+                    {
+                        setter.invokeExact(target, result.getDouble(index));
+                    }
+                };
+            }
+
+            if (type == float.class) {
+                return new Binding(setter.asType(MethodType.methodType(void.class, Object.class, float.class))) {
+                    @Override
+                    void read(ResultSet result, int index, Object target) throws Throwable
+                    {
+                        setter.invokeExact(target, result.getFloat(index));
+                    }
+                };
+            }
+
+            if (type == boolean.class) {
+                return new Binding(setter.asType(MethodType.methodType(void.class, Object.class, boolean.class))) {
+                    @Override
+                    void read(ResultSet result, int index, Object target) throws Throwable
+                    {
+                        setter.invokeExact(target, result.getBoolean(index));
+                    }
+                };
+            }
+
+            if (type == short.class) {
+                return new Binding(setter.asType(MethodType.methodType(void.class, Object.class, short.class))) {
+                    @Override
+                    void read(ResultSet result, int index, Object target) throws Throwable
+                    {
+                        setter.invokeExact(target, result.getShort(index));
+                    }
+                };
+            }
+
+            if (type == byte.class) {
+                return new Binding(setter.asType(MethodType.methodType(void.class, Object.class, byte.class))) {
+                    @Override
+                    void read(ResultSet result, int index, Object target) throws Throwable
+                    {
+                        setter.invokeExact(target, result.getByte(index));
+                    }
+                };
+            }
+
+            return new ObjectBinding(setter.asType(MethodType.methodType(void.class, Object.class, Object.class)), reader(type));
+        }
+
+        /**
+         * Returns the reader for a field of the given reference type.
+         *
+         * @param type The type of the field.
+         * @return Reader
+         */
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        private static Reader reader(Class<?> type)
+        {
+            if (type == String.class) {
+                return ResultSet::getString;
+            }
+
+            if (type == Integer.class) {
+                return (result, index) -> {
+                    int value = result.getInt(index);
+
+                    return result.wasNull() ? null : value;
+                };
+            }
+
+            if (type == Long.class) {
+                return (result, index) -> {
+                    long value = result.getLong(index);
+
+                    return result.wasNull() ? null : value;
+                };
+            }
+
+            if (type == Double.class) {
+                return (result, index) -> {
+                    double value = result.getDouble(index);
+
+                    return result.wasNull() ? null : value;
+                };
+            }
+
+            if (type == Float.class) {
+                return (result, index) -> {
+                    float value = result.getFloat(index);
+
+                    return result.wasNull() ? null : value;
+                };
+            }
+
+            if (type == Short.class) {
+                return (result, index) -> {
+                    short value = result.getShort(index);
+
+                    return result.wasNull() ? null : value;
+                };
+            }
+
+            if (type == Byte.class) {
+                return (result, index) -> {
+                    byte value = result.getByte(index);
+
+                    return result.wasNull() ? null : value;
+                };
+            }
+
+            if (type == Boolean.class) {
+                return (result, index) -> {
+                    boolean value = result.getBoolean(index);
+
+                    return result.wasNull() ? null : value;
+                };
+            }
+
+            if (type == BigDecimal.class) {
+                return ResultSet::getBigDecimal;
+            }
+
+            if (type == Timestamp.class || type == java.util.Date.class) {
+                return ResultSet::getTimestamp;
+            }
+
+            if (type == byte[].class) {
+                return ResultSet::getBytes;
+            }
+
+            if (type == UUID.class) {
+                return (result, index) -> {
+                    String value = result.getString(index);
+
+                    return value == null ? null : UUID.fromString(value);
+                };
+            }
+
+            if (type == Carbon.class) {
+                return (result, index) -> {
+                    String value = result.getString(index);
+
+                    try {
+                        return value == null ? null : new Carbon(value);
+                    } catch (ParseException ex) {
+                        throw new DatabaseException("Failed to parse the \"" + value + "\" value of column " + index + " as a timestamp.", ex);
+                    }
+                };
+            }
+
+            if (type.isEnum()) {
+                Class<? extends Enum> enumType = (Class<? extends Enum>) type;
+
+                return (result, index) -> {
+                    String value = result.getString(index);
+
+                    return value == null ? null : Enum.valueOf(enumType, value);
+                };
+            }
+
+            return ResultSet::getObject;
+        }
+    }
+
+    private static final class ObjectBinding extends Binding
+    {
+
+        private final Reader reader;
+
+        ObjectBinding(MethodHandle setter, Reader reader)
+        {
+            super(setter);
+
+            this.reader = reader;
+        }
+
+        @Override
+        void read(ResultSet result, int index, Object target) throws Throwable
+        {
+            setter.invokeExact(target, reader.read(result, index));
+        }
+    }
+
+    @FunctionalInterface
+    private interface Reader
+    {
+
+        Object read(ResultSet result, int index) throws SQLException;
+    }
+}
@@ -0,0 +1,121 @@
+package com.senither.library.database.eloquent;
+
+import com.senither.library.exceptions.DatabaseException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+public final class Schema
+{
+
+    /**
+     * Represents the column labels, in column order.
+     *
+     * @var String[]
+     */
+    private final String[] labels;
+
+    /**
+     * Represents the position of each column, keyed by its label.
+     *
+     * @var Map
+     */
+    private final Map<String, Integer> indexes;
+
+    /**
+     * Represents the column labels as an ordered, read-only set.
+     *
+     * @var Set
+     */
+    private final Set<String> keys;
+
+    /**
+     * Creates a new immutable schema from the given column labels, the schema
+     * is shared by every row in a result, so each row only has to store
+     * its values instead of its own copy of the column names.
+     *
+     * @param labels The column labels, in column order.
+     */
+    public Schema(String... labels)
+    {
+        this.labels = labels.clone();
+        this.indexes = new HashMap<>(labels.length * 2);
+
+        for (int i = 0; i < labels.length; i++) {
+            if (indexes.put(labels[i], i) != null) {
+                throw new DatabaseException("The schema can not contain the " + labels[i] + " column twice.");
+            }
+        }
+
+        this.keys = Collections.unmodifiableSet(new LinkedHashSet<>(Arrays.asList(labels)));
+    }
+
+    /**
+     * Creates a new immutable schema from the given column labels.
+     *
+     * @param labels The column labels, in column order.
+     */
+    public Schema(List<String> labels)
+    {
+        this(labels.toArray(new String[labels.size()]));
+    }
+
+    /**
+     * Returns the position of the given column, or -1 if the column doesn't exist.
+     *
+     * @param label The column label.
+     * @return Integer
+     */
+    public int indexOf(String label)
+    {
+        Integer index = indexes.get(label);
+
+        return index == null ? -1 : index;
+    }
+
+    /**
+     * Checks to see if the schema has a column with the given label.
+     *
+     * @param label The column label.
+     * @return Boolean
+     */
+    public boolean has(String label)
+    {
+        return indexes.containsKey(label);
+    }
+
+    /**
+     * Returns the label of the column at the given position.
+     *
+     * @param index The column position.
+     * @return String
+     */
+    public String getLabel(int index)
+    {
+        return labels[index];
+    }
+
+    /**
+     * Returns the column labels as an ordered, read-only set.
+     *
+     * @return Set
+     */
+    public Set<String> keySet()
+    {
+        return keys;
+    }
+
+    /**
+     * Returns the amount of columns in the schema.
+     *
+     * @return Integer
+     */
+    public int size()
+    {
+        return labels.length;
+    }
+}
@@ -0,0 +1,19 @@
+package com.senither.library.database.pool;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+@FunctionalInterface
+public interface ConnectionFactory
+{
+
+    /**
+     * Creates a brand new physical connection to the
+     * database, the pool takes ownership of the
+     * connection once it has been created.
+     *
+     * @return Connection
+     * @throws SQLException
+     */
+    public Connection create() throws SQLException;
+}
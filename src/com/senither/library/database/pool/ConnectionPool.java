@@ -0,0 +1,583 @@
+package com.senither.library.database.pool;
+
+import com.senither.library.SenLibrary;
+import java.sql.SQLException;
+import java.util.Iterator;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class ConnectionPool
+{
+
+    /**
+     * Represents our Sen Library instance, this is
+     * used to call other parts of the library.
+     *
+     * @var SenLibrary
+     */
+    private final SenLibrary library;
+
+    /**
+     * Represents the factory used to create new physical connections.
+     *
+     * @var ConnectionFactory
+     */
+    private final ConnectionFactory factory;
+
+    /**
+     * Represents the settings the pool was created with.
+     *
+     * @var PoolSettings
+     */
+    private final PoolSettings settings;
+
+    /**
+     * Represents the connections that are currently not borrowed, the most
+     * recently used connection is always at the head of the queue so
+     * the least used connections can be evicted from the tail.
+     *
+     * @var LinkedBlockingDeque
+     */
+    private final LinkedBlockingDeque<PooledConnection> idle = new LinkedBlockingDeque<>();
+
+    /**
+     * Represents the amount of connections that can still be borrowed,
+     * a permit is taken for every borrowed connection, making
+     * sure the pool never exceeds its maximum size.
+     *
+     * @var Semaphore
+     */
+    private final Semaphore permits;
+
+    /**
+     * Represents the total amount of physical connections the pool has open.
+     *
+     * @var AtomicInteger
+     */
+    private final AtomicInteger size = new AtomicInteger(0);
+
+    /**
+     * Represents the amount of borrowed connections that are held
+     * open by prepared statements and cursors.
+     *
+     * @var AtomicInteger
+     */
+    private final AtomicInteger held = new AtomicInteger(0);
+
+    /**
+     * Represents the statistics shared by the prepared
+     * statement cache of every connection in the pool.
+     *
+     * @var StatementCacheStatistics
+     */
+    private final StatementCacheStatistics statementCacheStatistics = new StatementCacheStatistics();
+
+    /**
+     * Represents the scheduler used to evict idle connections,
+     * and to run the connection health monitor.
+     *
+     * @var ScheduledExecutorService
+     */
+    private final ScheduledExecutorService evictor;
+
+    /**
+     * Represents the amount of times in a row the pool has failed to
+     * open a new connection, this is reset once a connection opens.
+     *
+     * @var Integer
+     */
+    private volatile int failures = 0;
+
+    /**
+     * Represents the time in milliseconds the next reconnect
+     * attempt is allowed to run, after a failed attempt.
+     *
+     * @var Long
+     */
+    private volatile long nextReconnectAt = 0L;
+
+    /**
+     * Represents the scheduled reconnect attempt, or null
+     * if no reconnect attempt is waiting to run.
+     *
+     * @var ScheduledFuture
+     */
+    private ScheduledFuture<?> reconnect = null;
+
+    /**
+     * Determines if the pool has been closed.
+     *
+     * @var Boolean
+     */
+    private volatile boolean closed = false;
+
+    /**
+     * Creates a new connection pool, filling it up to the minimum size
+     * and starting the idle connection evictor and health monitor.
+     *
+     * @param library  The sen-library instance.
+     * @param factory  The factory used to create physical connections.
+     * @param settings The pool settings.
+     * @throws SQLException
+     */
+    public ConnectionPool(SenLibrary library, ConnectionFactory factory, PoolSettings settings) throws SQLException
+    {
+        this.library = library;
+        this.factory = factory;
+        this.settings = settings;
+
+        permits = new Semaphore(settings.getMaximumSize(), settings.isFair());
+
+        evictor = Executors.newSingleThreadScheduledExecutor((runnable) -> {
+            Thread thread = new Thread(runnable, "SenLibrary-Pool-Evictor");
+            thread.setDaemon(true);
+
+            return thread;
+        });
+
+        try {
+            fill();
+        } catch (SQLException e) {
+            close();
+
+            throw e;
+        }
+
+        evictor.scheduleWithFixedDelay(this::evict, settings.getEvictionInterval(), settings.getEvictionInterval(), TimeUnit.MILLISECONDS);
+        evictor.scheduleWithFixedDelay(this::monitor, settings.getHealthCheckInterval(), settings.getHealthCheckInterval(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Borrows a connection from the pool, waiting for one to be released if
+     * the pool is at its maximum size, idle connections that haven't been
+     * used or validated within the validation interval are validated
+     * before they're handed out, the connection must be closed
+     * once the caller is done with it, if every connection is held
+     * open by a prepared statement or a cursor, this fails right
+     * away, since none of them are handed back on their own.
+     *
+     * @return PooledConnection
+     * @throws SQLException
+     */
+    public PooledConnection borrow() throws SQLException
+    {
+        if (closed) {
+            throw new ConnectionPoolException("The connection pool has been closed.");
+        }
+
+        if (held.get() >= settings.getMaximumSize()) {
+            throw new ConnectionPoolException(String.format("Every database connection (%d) is held by an open prepared statement or cursor, release them before running other queries.", settings.getMaximumSize()));
+        }
+
+        try {
+            if (!permits.tryAcquire(settings.getBorrowTimeout(), TimeUnit.MILLISECONDS)) {
+                throw new ConnectionPoolException(String.format("Timed out after %dms waiting for a database connection.", settings.getBorrowTimeout()));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+
+            throw new ConnectionPoolException("Interrupted while waiting for a database connection.", e);
+        }
+
+        try {
+            PooledConnection connection;
+            long now = System.currentTimeMillis();
+
+            while (true) {
+                while ((connection = idle.pollFirst()) != null) {
+                    if (!connection.needsValidation(settings.getValidationInterval(), now) || connection.isValid(settings.getValidationTimeout())) {
+                        connection.borrow();
+
+                        return connection;
+                    }
+
+                    destroy(connection);
+                }
+
+                // Holding a permit means the pool has room for another connection, if every
+                // slot is reserved anyway, a connection is about to be added to the idle
+                // queue, or to be closed, so we just look through the queue again.
+                if (reserve(settings.getMaximumSize())) {
+                    connection = create();
+                    connection.borrow();
+
+                    return connection;
+                }
+
+                Thread.yield();
+            }
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+
+            throw e;
+        }
+    }
+
+    /**
+     * Hands a borrowed connection back to the pool, broken and evicted
+     * connections are closed instead of being reused.
+     *
+     * @param connection The connection to release.
+     */
+    void release(PooledConnection connection)
+    {
+        if (!connection.giveBack()) {
+            return;
+        }
+
+        if (connection.unhold()) {
+            held.decrementAndGet();
+        }
+
+        try {
+            if (closed || connection.isEvicted() || connection.getConnection().isClosed()) {
+                destroy(connection);
+            } else {
+                resetTransaction(connection);
+
+                idle.offerFirst(connection);
+            }
+        } catch (SQLException e) {
+            destroy(connection);
+        } finally {
+            permits.release();
+        }
+    }
+
+    /**
+     * Returns the settings the pool was created with.
+     *
+     * @return PoolSettings
+     */
+    public PoolSettings getSettings()
+    {
+        return settings;
+    }
+
+    /**
+     * Returns the hit, miss and eviction statistics of the
+     * prepared statement caches of every connection.
+     *
+     * @return StatementCacheStatistics
+     */
+    public StatementCacheStatistics getStatementCacheStatistics()
+    {
+        return statementCacheStatistics;
+    }
+
+    /**
+     * Returns the total amount of physical connections the pool has open.
+     *
+     * @return Integer
+     */
+    public int getSize()
+    {
+        return size.get();
+    }
+
+    /**
+     * Returns the amount of borrowed connections that are held
+     * open by prepared statements and cursors.
+     *
+     * @return Integer
+     */
+    public int getHeldSize()
+    {
+        return held.get();
+    }
+
+    /**
+     * Returns the amount of connections sitting idle in the pool.
+     *
+     * @return Integer
+     */
+    public int getIdleSize()
+    {
+        return idle.size();
+    }
+
+    /**
+     * Returns the amount of callers currently waiting for a connection.
+     *
+     * @return Integer
+     */
+    public int getWaitingSize()
+    {
+        return permits.getQueueLength();
+    }
+
+    /**
+     * Checks to see if the pool was able to open a new
+     * connection the last time it tried to.
+     *
+     * @return Boolean
+     */
+    public boolean isHealthy()
+    {
+        return failures == 0;
+    }
+
+    /**
+     * Returns the amount of times in a row the pool has failed to open a new connection.
+     *
+     * @return Integer
+     */
+    public int getConsecutiveFailures()
+    {
+        return failures;
+    }
+
+    /**
+     * Checks to see if the pool has been closed.
+     *
+     * @return Boolean
+     */
+    public boolean isClosed()
+    {
+        return closed;
+    }
+
+    /**
+     * Closes the pool and every idle connection, borrowed connections
+     * will be closed once they're handed back to the pool.
+     */
+    public void close()
+    {
+        closed = true;
+
+        evictor.shutdownNow();
+
+        PooledConnection connection;
+        while ((connection = idle.pollFirst()) != null) {
+            destroy(connection);
+        }
+    }
+
+    /**
+     * Counts a borrowed connection as held open by a prepared statement or a cursor.
+     */
+    void hold()
+    {
+        held.incrementAndGet();
+    }
+
+    /**
+     * Opens new idle connections until the pool reaches its minimum size.
+     *
+     * @throws SQLException
+     */
+    private void fill() throws SQLException
+    {
+        while (!closed && reserve(Math.min(settings.getMinimumSize(), settings.getMaximumSize()))) {
+            idle.offerLast(create());
+        }
+    }
+
+    /**
+     * Closes connections that have been idle for longer than the idle
+     * timeout, while keeping the pool at its minimum size.
+     */
+    private void evict()
+    {
+        long now = System.currentTimeMillis();
+
+        Iterator<PooledConnection> iterator = idle.descendingIterator();
+        while (iterator.hasNext() && size.get() > settings.getMinimumSize()) {
+            PooledConnection connection = iterator.next();
+
+            if (now - connection.getLastUsedAt() > settings.getIdleTimeout() && idle.removeLastOccurrence(connection)) {
+                destroy(connection);
+            }
+        }
+
+        refill();
+    }
+
+    /**
+     * Validates the idle connections that haven't been used or validated within
+     * the validation interval, closing the broken ones, and refills the
+     * pool, so broken connections are found in the background
+     * instead of when they're borrowed.
+     */
+    private void monitor()
+    {
+        long now = System.currentTimeMillis();
+        int broken = 0;
+
+        for (PooledConnection connection : idle.toArray(new PooledConnection[0])) {
+            if (closed) {
+                return;
+            }
+
+            if (!connection.needsValidation(settings.getValidationInterval(), now)) {
+                continue;
+            }
+
+            // The connection being validated is taken out of the idle queue using a permit,
+            // just like a borrowed connection, so callers never open extra connections
+            // while it's out, if every permit is taken, the pool is in use anyway.
+            if (!permits.tryAcquire()) {
+                break;
+            }
+
+            try {
+                if (!idle.removeFirstOccurrence(connection)) {
+                    continue;
+                }
+
+                if (connection.isValid(settings.getValidationTimeout())) {
+                    idle.offerLast(connection);
+
+                    if (closed && idle.remove(connection)) {
+                        destroy(connection);
+                    }
+                } else {
+                    destroy(connection);
+                    broken++;
+                }
+            } finally {
+                permits.release();
+            }
+        }
+
+        if (broken > 0) {
+            library.getLogger().warning("Database - The health monitor closed {0} broken connection(s).", broken);
+        }
+
+        refill();
+    }
+
+    /**
+     * Refills the pool up to its minimum size, if a connection can't be opened,
+     * another attempt is scheduled using an exponential backoff, attempts
+     * made before the backoff has passed are skipped.
+     */
+    private void refill()
+    {
+        long now = System.currentTimeMillis();
+
+        if (closed || now < nextReconnectAt) {
+            return;
+        }
+
+        try {
+            fill();
+
+            if (failures > 0) {
+                library.getLogger().info("Database - Reconnected to the database after {0} failed attempt(s).", failures);
+            }
+
+            failures = 0;
+        } catch (SQLException e) {
+            failures++;
+
+            long backoff = Math.min(settings.getMaximumReconnectBackoff(), settings.getReconnectBackoff() << Math.min(failures - 1, 20));
+            nextReconnectAt = now + backoff;
+
+            library.getLogger().warning("Database - Could not refill the connection pool, retrying in {0}ms, SQLException: {1}", backoff, e.getMessage());
+
+            if (reconnect != null) {
+                return;
+            }
+
+            try {
+                reconnect = evictor.schedule(this::reconnect, backoff, TimeUnit.MILLISECONDS);
+            } catch (RejectedExecutionException ex) {
+                // The pool was closed while the attempt was running.
+            }
+        }
+    }
+
+    /**
+     * Runs the scheduled reconnect attempt, the attempt runs on the
+     * same thread as the health monitor, so only a single
+     * reconnect attempt is ever waiting to run.
+     */
+    private void reconnect()
+    {
+        reconnect = null;
+
+        refill();
+    }
+
+    /**
+     * Reserves a slot in the pool for a new connection, as long as the pool
+     * has less connections than the given limit, the slot is reserved
+     * before the connection is opened, so threads opening connections
+     * at the same time can never grow the pool past the limit.
+     *
+     * @param limit The maximum amount of connections the pool can have.
+     * @return Boolean
+     */
+    private boolean reserve(int limit)
+    {
+        while (true) {
+            int current = size.get();
+
+            if (current >= limit) {
+                return false;
+            }
+
+            if (size.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Creates a new physical connection using the connection factory, a slot
+     * must have been reserved for the connection first, the slot is given
+     * back if the connection can't be opened, failing to open the
+     * connection is reported as a pool exception, so callers
+     * can tell it apart from queries that failed.
+     *
+     * @return PooledConnection
+     * @throws ConnectionPoolException
+     */
+    private PooledConnection create() throws ConnectionPoolException
+    {
+        try {
+            return new PooledConnection(this, factory.create());
+        } catch (SQLException e) {
+            size.decrementAndGet();
+
+            throw new ConnectionPoolException("Could not open a new database connection, " + e.getMessage(), e);
+        } catch (RuntimeException e) {
+            size.decrementAndGet();
+
+            throw e;
+        }
+    }
+
+    /**
+     * Closes the physical connection and removes it from the pool.
+     *
+     * @param connection The connection to destroy.
+     */
+    private void destroy(PooledConnection connection)
+    {
+        size.decrementAndGet();
+        connection.destroy();
+    }
+
+    /**
+     * Rolls back any transaction that was left open on the connection,
+     * making sure the next borrower starts in auto-commit mode.
+     *
+     * @param connection The connection to reset.
+     * @throws SQLException
+     */
+    private void resetTransaction(PooledConnection connection) throws SQLException
+    {
+        if (!connection.getConnection().getAutoCommit()) {
+            connection.getConnection().rollback();
+            connection.getConnection().setAutoCommit(true);
+        }
+    }
+}
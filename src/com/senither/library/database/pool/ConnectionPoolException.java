@@ -0,0 +1,17 @@
+package com.senither.library.database.pool;
+
+import java.sql.SQLTransientConnectionException;
+
+public class ConnectionPoolException extends SQLTransientConnectionException
+{
+
+    public ConnectionPoolException(String reason)
+    {
+        super(reason);
+    }
+
+    public ConnectionPoolException(String reason, Throwable cause)
+    {
+        super(reason, cause);
+    }
+}
@@ -0,0 +1,432 @@
+package com.senither.library.database.pool;
+
+import com.senither.library.exceptions.DatabaseException;
+
+public class PoolSettings
+{
+
+    /**
+     * The minimum amount of connections the pool should keep
+     * open, idle connections will never be evicted if
+     * it would bring the pool below this size.
+     *
+     * @var Integer
+     */
+    private int minimumSize = 1;
+
+    /**
+     * The maximum amount of connections the pool is allowed to have open
+     * at the same time, callers will wait in line for a connection
+     * to be released once the pool has reached this size.
+     *
+     * @var Integer
+     */
+    private int maximumSize = 10;
+
+    /**
+     * The amount of time in milliseconds a connection is allowed
+     * to sit idle in the pool before it is evicted.
+     *
+     * @var Long
+     */
+    private long idleTimeout = 600000L;
+
+    /**
+     * The amount of time in milliseconds between each
+     * time the pool is checked for idle connections.
+     *
+     * @var Long
+     */
+    private long evictionInterval = 30000L;
+
+    /**
+     * The amount of time in milliseconds a caller will wait
+     * for a connection before the borrow attempt fails.
+     *
+     * @var Long
+     */
+    private long borrowTimeout = 30000L;
+
+    /**
+     * The amount of time in seconds the database has to
+     * respond when a connection is being validated.
+     *
+     * @var Integer
+     */
+    private int validationTimeout = 1;
+
+    /**
+     * The amount of time in milliseconds a connection can go unused before
+     * it is validated again when it is borrowed, connections that was
+     * used or validated more recently are handed out right away.
+     *
+     * @var Long
+     */
+    private long validationInterval = 5000L;
+
+    /**
+     * The amount of time in milliseconds between each time the health
+     * monitor validates the idle connections in the pool.
+     *
+     * @var Long
+     */
+    private long healthCheckInterval = 30000L;
+
+    /**
+     * The amount of time in milliseconds the health monitor waits before
+     * trying to reconnect after a failed attempt, the delay is doubled
+     * after every failure, up to the maximum reconnect backoff.
+     *
+     * @var Long
+     */
+    private long reconnectBackoff = 1000L;
+
+    /**
+     * The maximum amount of time in milliseconds the health
+     * monitor waits between each reconnect attempt.
+     *
+     * @var Long
+     */
+    private long maximumReconnectBackoff = 60000L;
+
+    /**
+     * Determines if callers waiting for a connection should
+     * be served in the order they started waiting.
+     *
+     * @var Boolean
+     */
+    private boolean fair = true;
+
+    /**
+     * The maximum amount of prepared statements each
+     * connection keeps cached for reuse.
+     *
+     * @var Integer
+     */
+    private int statementCacheSize = 64;
+
+    /**
+     * Returns the minimum amount of connections the pool should keep open.
+     *
+     * @return Integer
+     */
+    public int getMinimumSize()
+    {
+        return minimumSize;
+    }
+
+    /**
+     * Sets the minimum amount of connections the pool should keep open.
+     *
+     * @param minimumSize The minimum pool size.
+     * @return PoolSettings
+     */
+    public PoolSettings setMinimumSize(int minimumSize)
+    {
+        if (minimumSize < 0) {
+            throw new DatabaseException("The minimum pool size cannot be below 0.");
+        }
+
+        this.minimumSize = minimumSize;
+
+        return this;
+    }
+
+    /**
+     * Returns the maximum amount of connections the pool can have open.
+     *
+     * @return Integer
+     */
+    public int getMaximumSize()
+    {
+        return maximumSize;
+    }
+
+    /**
+     * Sets the maximum amount of connections the pool can have open.
+     *
+     * @param maximumSize The maximum pool size.
+     * @return PoolSettings
+     */
+    public PoolSettings setMaximumSize(int maximumSize)
+    {
+        if (maximumSize < 1) {
+            throw new DatabaseException("The maximum pool size cannot be below 1.");
+        }
+
+        this.maximumSize = maximumSize;
+
+        return this;
+    }
+
+    /**
+     * Returns the amount of time in milliseconds a connection
+     * is allowed to sit idle before it is evicted.
+     *
+     * @return Long
+     */
+    public long getIdleTimeout()
+    {
+        return idleTimeout;
+    }
+
+    /**
+     * Sets the amount of time in milliseconds a connection
+     * is allowed to sit idle before it is evicted.
+     *
+     * @param idleTimeout The idle timeout in milliseconds.
+     * @return PoolSettings
+     */
+    public PoolSettings setIdleTimeout(long idleTimeout)
+    {
+        this.idleTimeout = idleTimeout;
+
+        return this;
+    }
+
+    /**
+     * Returns the amount of time in milliseconds between each idle check.
+     *
+     * @return Long
+     */
+    public long getEvictionInterval()
+    {
+        return evictionInterval;
+    }
+
+    /**
+     * Sets the amount of time in milliseconds between each idle check.
+     *
+     * @param evictionInterval The eviction interval in milliseconds.
+     * @return PoolSettings
+     */
+    public PoolSettings setEvictionInterval(long evictionInterval)
+    {
+        if (evictionInterval < 1) {
+            throw new DatabaseException("The eviction interval must be at least 1 millisecond.");
+        }
+
+        this.evictionInterval = evictionInterval;
+
+        return this;
+    }
+
+    /**
+     * Returns the amount of time in milliseconds a caller
+     * will wait for a connection to become available.
+     *
+     * @return Long
+     */
+    public long getBorrowTimeout()
+    {
+        return borrowTimeout;
+    }
+
+    /**
+     * Sets the amount of time in milliseconds a caller
+     * will wait for a connection to become available.
+     *
+     * @param borrowTimeout The borrow timeout in milliseconds.
+     * @return PoolSettings
+     */
+    public PoolSettings setBorrowTimeout(long borrowTimeout)
+    {
+        this.borrowTimeout = borrowTimeout;
+
+        return this;
+    }
+
+    /**
+     * Returns the amount of time in seconds the database
+     * has to respond when a connection is validated.
+     *
+     * @return Integer
+     */
+    public int getValidationTimeout()
+    {
+        return validationTimeout;
+    }
+
+    /**
+     * Sets the amount of time in seconds the database
+     * has to respond when a connection is validated.
+     *
+     * @param validationTimeout The validation timeout in seconds.
+     * @return PoolSettings
+     */
+    public PoolSettings setValidationTimeout(int validationTimeout)
+    {
+        this.validationTimeout = validationTimeout;
+
+        return this;
+    }
+
+    /**
+     * Returns the amount of time in milliseconds a connection can go
+     * unused before it is validated again when it is borrowed.
+     *
+     * @return Long
+     */
+    public long getValidationInterval()
+    {
+        return validationInterval;
+    }
+
+    /**
+     * Sets the amount of time in milliseconds a connection can go unused
+     * before it is validated again when it is borrowed, setting the
+     * interval to 0 validates connections every time.
+     *
+     * @param validationInterval The validation interval in milliseconds.
+     * @return PoolSettings
+     */
+    public PoolSettings setValidationInterval(long validationInterval)
+    {
+        if (validationInterval < 0) {
+            throw new DatabaseException("The validation interval cannot be negative.");
+        }
+
+        this.validationInterval = validationInterval;
+
+        return this;
+    }
+
+    /**
+     * Returns the amount of time in milliseconds between each health check.
+     *
+     * @return Long
+     */
+    public long getHealthCheckInterval()
+    {
+        return healthCheckInterval;
+    }
+
+    /**
+     * Sets the amount of time in milliseconds between each health check.
+     *
+     * @param healthCheckInterval The health check interval in milliseconds.
+     * @return PoolSettings
+     */
+    public PoolSettings setHealthCheckInterval(long healthCheckInterval)
+    {
+        if (healthCheckInterval < 1) {
+            throw new DatabaseException("The health check interval must be at least 1 millisecond.");
+        }
+
+        this.healthCheckInterval = healthCheckInterval;
+
+        return this;
+    }
+
+    /**
+     * Returns the amount of time in milliseconds to wait
+     * before the first reconnect attempt after a failure.
+     *
+     * @return Long
+     */
+    public long getReconnectBackoff()
+    {
+        return reconnectBackoff;
+    }
+
+    /**
+     * Sets the amount of time in milliseconds to wait
+     * before the first reconnect attempt after a failure.
+     *
+     * @param reconnectBackoff The reconnect backoff in milliseconds.
+     * @return PoolSettings
+     */
+    public PoolSettings setReconnectBackoff(long reconnectBackoff)
+    {
+        if (reconnectBackoff < 1) {
+            throw new DatabaseException("The reconnect backoff must be at least 1 millisecond.");
+        }
+
+        this.reconnectBackoff = reconnectBackoff;
+
+        return this;
+    }
+
+    /**
+     * Returns the maximum amount of time in milliseconds
+     * to wait between each reconnect attempt.
+     *
+     * @return Long
+     */
+    public long getMaximumReconnectBackoff()
+    {
+        return maximumReconnectBackoff;
+    }
+
+    /**
+     * Sets the maximum amount of time in milliseconds
+     * to wait between each reconnect attempt.
+     *
+     * @param maximumReconnectBackoff The maximum reconnect backoff in milliseconds.
+     * @return PoolSettings
+     */
+    public PoolSettings setMaximumReconnectBackoff(long maximumReconnectBackoff)
+    {
+        if (maximumReconnectBackoff < 1) {
+            throw new DatabaseException("The maximum reconnect backoff must be at least 1 millisecond.");
+        }
+
+        this.maximumReconnectBackoff = maximumReconnectBackoff;
+
+        return this;
+    }
+
+    /**
+     * Returns true if callers waiting for a connection
+     * are served in the order they started waiting.
+     *
+     * @return Boolean
+     */
+    public boolean isFair()
+    {
+        return fair;
+    }
+
+    /**
+     * Sets if callers waiting for a connection should be
+     * served in the order they started waiting.
+     *
+     * @param fair The fairness state.
+     * @return PoolSettings
+     */
+    public PoolSettings setFair(boolean fair)
+    {
+        this.fair = fair;
+
+        return this;
+    }
+
+    /**
+     * Returns the maximum amount of prepared statements
+     * each connection keeps cached for reuse.
+     *
+     * @return Integer
+     */
+    public int getStatementCacheSize()
+    {
+        return statementCacheSize;
+    }
+
+    /**
+     * Sets the maximum amount of prepared statements
+     * each connection keeps cached for reuse.
+     *
+     * @param statementCacheSize The statement cache size.
+     * @return PoolSettings
+     */
+    public PoolSettings setStatementCacheSize(int statementCacheSize)
+    {
+        if (statementCacheSize < 1) {
+            throw new DatabaseException("The statement cache size cannot be below 1.");
+        }
+
+        this.statementCacheSize = statementCacheSize;
+
+        return this;
+    }
+}
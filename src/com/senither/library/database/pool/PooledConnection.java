@@ -0,0 +1,348 @@
+package com.senither.library.database.pool;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+public class PooledConnection implements AutoCloseable
+{
+
+    /**
+     * Represents the pool the connection belongs to, the
+     * connection will be handed back to this pool
+     * once the borrower closes it.
+     *
+     * @var ConnectionPool
+     */
+    private final ConnectionPool pool;
+
+    /**
+     * Represents the physical database connection.
+     *
+     * @var Connection
+     */
+    private final Connection connection;
+
+    /**
+     * Represents the time in milliseconds the connection was created.
+     *
+     * @var Long
+     */
+    private final long createdAt;
+
+    /**
+     * Represents the time in milliseconds the connection
+     * was last successfully used.
+     *
+     * @var Long
+     */
+    private volatile long lastUsedAt;
+
+    /**
+     * Represents the time in milliseconds the connection
+     * was last successfully validated.
+     *
+     * @var Long
+     */
+    private volatile long lastValidatedAt;
+
+    /**
+     * Determines if the connection is currently borrowed from the pool,
+     * this prevents the connection from being handed back twice.
+     *
+     * @var AtomicBoolean
+     */
+    private final AtomicBoolean borrowed = new AtomicBoolean(false);
+
+    /**
+     * Represents the amount of extra leases the connection has been given
+     * while it's borrowed, every lease must be closed before the
+     * connection is handed back to the pool.
+     *
+     * @var Integer
+     */
+    private int leases = 0;
+
+    /**
+     * Determines if the connection is held open by a prepared
+     * statement or a cursor until the caller releases it.
+     *
+     * @var Boolean
+     */
+    private boolean held = false;
+
+    /**
+     * Determines if the connection should be closed once it's
+     * handed back to the pool, instead of being reused.
+     *
+     * @var Boolean
+     */
+    private volatile boolean evicted = false;
+
+    /**
+     * Represents the prepared statements cached for this connection.
+     *
+     * @var StatementCache
+     */
+    private final StatementCache statements;
+
+    /**
+     * Creates a new pooled connection instance.
+     *
+     * @param pool       The pool the connection belongs to.
+     * @param connection The physical database connection.
+     */
+    PooledConnection(ConnectionPool pool, Connection connection)
+    {
+        this.pool = pool;
+        this.connection = connection;
+
+        statements = new StatementCache(connection, pool.getSettings().getStatementCacheSize(), pool.getStatementCacheStatistics());
+
+        createdAt = lastUsedAt = lastValidatedAt = System.currentTimeMillis();
+    }
+
+    /**
+     * Returns the physical database connection, the connection
+     * should never be closed directly, close the pooled
+     * connection instead to hand it back to the pool.
+     *
+     * @return Connection
+     */
+    public Connection getConnection()
+    {
+        return connection;
+    }
+
+    /**
+     * Returns a cached prepared statement for the given query, the statement
+     * is owned by the connection and must not be closed by the caller.
+     *
+     * @param query The query to prepare.
+     * @return PreparedStatement
+     * @throws SQLException
+     */
+    public PreparedStatement prepare(String query) throws SQLException
+    {
+        return statements.prepare(query, false);
+    }
+
+    /**
+     * Returns a cached prepared statement for the given query that returns
+     * generated keys, the statement is owned by the connection and
+     * must not be closed by the caller.
+     *
+     * @param query The query to prepare.
+     * @return PreparedStatement
+     * @throws SQLException
+     */
+    public PreparedStatement prepareWithKeys(String query) throws SQLException
+    {
+        return statements.prepare(query, true);
+    }
+
+    /**
+     * Returns the prepared statement cache for this connection.
+     *
+     * @return StatementCache
+     */
+    public StatementCache getStatementCache()
+    {
+        return statements;
+    }
+
+    /**
+     * Returns the time in milliseconds the connection was created.
+     *
+     * @return Long
+     */
+    public long getCreatedAt()
+    {
+        return createdAt;
+    }
+
+    /**
+     * Returns the time in milliseconds the connection
+     * was last successfully used.
+     *
+     * @return Long
+     */
+    public long getLastUsedAt()
+    {
+        return lastUsedAt;
+    }
+
+    /**
+     * Returns the time in milliseconds the connection
+     * was last successfully validated.
+     *
+     * @return Long
+     */
+    public long getLastValidatedAt()
+    {
+        return lastValidatedAt;
+    }
+
+    /**
+     * Marks the connection as borrowed from the pool.
+     */
+    void borrow()
+    {
+        borrowed.set(true);
+    }
+
+    /**
+     * Gives out another lease on the already borrowed connection, allowing
+     * nested code on the same thread to share the connection, closing
+     * the lease will not hand the connection back to the pool.
+     *
+     * @return PooledConnection
+     */
+    public PooledConnection lease()
+    {
+        leases++;
+
+        return this;
+    }
+
+    /**
+     * Marks the borrowed connection as held open by a prepared statement or a
+     * cursor, once every connection in the pool is held, borrowing fails
+     * right away instead of waiting for one to be handed back, leases
+     * given out inside a transaction are never marked as held.
+     *
+     * @return PooledConnection
+     */
+    public PooledConnection hold()
+    {
+        if (leases == 0 && !held) {
+            held = true;
+            pool.hold();
+        }
+
+        return this;
+    }
+
+    /**
+     * Removes the held mark from the connection, this will
+     * return false if the connection wasn't held.
+     *
+     * @return Boolean
+     */
+    boolean unhold()
+    {
+        if (!held) {
+            return false;
+        }
+
+        held = false;
+
+        return true;
+    }
+
+    /**
+     * Marks the connection as returned to the pool, this will
+     * return false if the connection wasn't borrowed.
+     *
+     * @return Boolean
+     */
+    boolean giveBack()
+    {
+        return borrowed.compareAndSet(true, false);
+    }
+
+    /**
+     * Marks the connection to be closed once it's handed back to the pool,
+     * instead of being reused, this should be used if the connection is
+     * left in a state the next borrower can't rely on.
+     */
+    public void evict()
+    {
+        evicted = true;
+    }
+
+    /**
+     * Checks to see if the connection has been marked to be
+     * closed once it's handed back to the pool.
+     *
+     * @return Boolean
+     */
+    boolean isEvicted()
+    {
+        return evicted;
+    }
+
+    /**
+     * Marks the connection as successfully used right now, connections that
+     * was recently used skips validation when they're borrowed, so this
+     * should only be called once a query has made a round trip to
+     * the database without failing.
+     */
+    public void touch()
+    {
+        lastUsedAt = System.currentTimeMillis();
+    }
+
+    /**
+     * Checks to see if the physical connection is still valid.
+     *
+     * @param seconds The amount of time to wait for the database to respond.
+     * @return Boolean
+     */
+    boolean isValid(int seconds)
+    {
+        try {
+            if (connection.isValid(seconds)) {
+                lastValidatedAt = System.currentTimeMillis();
+
+                return true;
+            }
+        } catch (SQLException e) {
+        }
+
+        return false;
+    }
+
+    /**
+     * Checks to see if the connection has gone unused and unvalidated for longer than
+     * the given interval, connections that was recently used or validated
+     * are assumed to still be valid, skipping the round trip.
+     *
+     * @param interval The validation interval in milliseconds.
+     * @param now      The current time in milliseconds.
+     * @return Boolean
+     */
+    boolean needsValidation(long interval, long now)
+    {
+        return now - Math.max(lastUsedAt, lastValidatedAt) >= interval;
+    }
+
+    /**
+     * Closes the physical database connection.
+     */
+    void destroy()
+    {
+        statements.clear();
+
+        try {
+            connection.close();
+        } catch (SQLException e) {
+        }
+    }
+
+    /**
+     * Hands the connection back to the pool it was borrowed from, or
+     * closes one of the leases given out on the connection.
+     */
+    @Override
+    public void close()
+    {
+        if (leases > 0) {
+            leases--;
+            return;
+        }
+
+        pool.release(this);
+    }
+}
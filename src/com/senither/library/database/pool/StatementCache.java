@@ -0,0 +1,140 @@
+package com.senither.library.database.pool;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+public class StatementCache
+{
+
+    /**
+     * Represents the connection the cached statements belongs to.
+     *
+     * @var Connection
+     */
+    private final Connection connection;
+
+    /**
+     * Represents the maximum amount of statements the cache can hold.
+     *
+     * @var Integer
+     */
+    private final int capacity;
+
+    /**
+     * Represents the statistics the cache reports its hits, misses
+     * and evictions to, the statistics are shared between
+     * every connection in the same pool.
+     *
+     * @var StatementCacheStatistics
+     */
+    private final StatementCacheStatistics statistics;
+
+    /**
+     * Represents the cached statements, keyed by their SQL query, the
+     * map is ordered by access so the least recently used
+     * statement is always the first to be evicted.
+     *
+     * @var LinkedHashMap
+     */
+    private final LinkedHashMap<String, PreparedStatement> statements;
+
+    /**
+     * Creates a new statement cache instance.
+     *
+     * @param connection The connection to prepare statements on.
+     * @param capacity   The maximum amount of cached statements.
+     * @param statistics The statistics to report to.
+     */
+    StatementCache(Connection connection, int capacity, StatementCacheStatistics statistics)
+    {
+        this.connection = connection;
+        this.capacity = capacity;
+        this.statistics = statistics;
+
+        statements = new LinkedHashMap<String, PreparedStatement>(16, 0.75F, true)
+        {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, PreparedStatement> eldest)
+            {
+                if (size() <= StatementCache.this.capacity) {
+                    return false;
+                }
+
+                close(eldest.getValue());
+                StatementCache.this.statistics.evict();
+
+                return true;
+            }
+        };
+    }
+
+    /**
+     * Returns a prepared statement for the given query, reusing the cached statement if the
+     * query has been prepared before, the parameters of a reused statement are cleared.
+     *
+     * @param query         The query to prepare.
+     * @param generatedKeys Determines if the statement should return generated keys.
+     * @return PreparedStatement
+     * @throws SQLException
+     */
+    public PreparedStatement prepare(String query, boolean generatedKeys) throws SQLException
+    {
+        // Statements that return generated keys are prepared differently, so they're
+        // stored under their own key to avoid handing out the wrong statement type.
+        String key = generatedKeys ? "keys:" + query : query;
+
+        PreparedStatement statement = statements.get(key);
+
+        if (statement != null && !statement.isClosed()) {
+            statistics.hit();
+            statement.clearParameters();
+
+            return statement;
+        }
+
+        statistics.miss();
+        statement = generatedKeys
+                    ? connection.prepareStatement(query, Statement.RETURN_GENERATED_KEYS)
+                    : connection.prepareStatement(query);
+
+        statements.put(key, statement);
+
+        return statement;
+    }
+
+    /**
+     * Returns the amount of statements currently cached.
+     *
+     * @return Integer
+     */
+    public int size()
+    {
+        return statements.size();
+    }
+
+    /**
+     * Closes every cached statement and empties the cache.
+     */
+    public void clear()
+    {
+        statements.values().forEach(this::close);
+        statements.clear();
+    }
+
+    /**
+     * Closes the given statement, ignoring any errors.
+     *
+     * @param statement The statement to close.
+     */
+    private void close(PreparedStatement statement)
+    {
+        try {
+            statement.close();
+        } catch (SQLException e) {
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package com.senither.library.database.pool;
+
+import java.util.concurrent.atomic.LongAdder;
+
+public class StatementCacheStatistics
+{
+
+    /**
+     * Represents the amount of times a prepared
+     * statement was reused from a cache.
+     *
+     * @var LongAdder
+     */
+    private final LongAdder hits = new LongAdder();
+
+    /**
+     * Represents the amount of times a prepared statement
+     * had to be prepared because it wasn't cached.
+     *
+     * @var LongAdder
+     */
+    private final LongAdder misses = new LongAdder();
+
+    /**
+     * Represents the amount of prepared statements that was
+     * closed to make room for other statements.
+     *
+     * @var LongAdder
+     */
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * Returns the amount of times a prepared statement was reused.
+     *
+     * @return Long
+     */
+    public long getHits()
+    {
+        return hits.sum();
+    }
+
+    /**
+     * Returns the amount of times a prepared statement had to be prepared.
+     *
+     * @return Long
+     */
+    public long getMisses()
+    {
+        return misses.sum();
+    }
+
+    /**
+     * Returns the amount of prepared statements that was evicted.
+     *
+     * @return Long
+     */
+    public long getEvictions()
+    {
+        return evictions.sum();
+    }
+
+    /**
+     * Returns the ratio of statement lookups that was served
+     * from a cache, as a number between 0 and 1.
+     *
+     * @return Double
+     */
+    public double getHitRatio()
+    {
+        long hit = getHits();
+        long total = hit + getMisses();
+
+        return total == 0 ? 0D : (double) hit / total;
+    }
+
+    /**
+     * Records a statement that was reused from a cache.
+     */
+    void hit()
+    {
+        hits.increment();
+    }
+
+    /**
+     * Records a statement that had to be prepared.
+     */
+    void miss()
+    {
+        misses.increment();
+    }
+
+    /**
+     * Records a statement that was evicted from a cache.
+     */
+    void evict()
+    {
+        evictions.increment();
+    }
+
+    @Override
+    public String toString()
+    {
+        return String.format("StatementCacheStatistics{hits=%d, misses=%d, evictions=%d, hitRatio=%.2f}", getHits(), getMisses(), getEvictions(), getHitRatio());
+    }
+}
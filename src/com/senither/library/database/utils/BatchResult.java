@@ -0,0 +1,100 @@
+package com.senither.library.database.utils;
+
+import java.sql.Statement;
+import java.util.Collections;
+import java.util.List;
+
+public class BatchResult
+{
+
+    /**
+     * The keys generated by the database for the
+     * inserted rows, in the order they were inserted.
+     *
+     * @var List
+     */
+    private final List<Long> keys;
+
+    /**
+     * The update count of every row in the batch, in the
+     * same order as the rows was added to the batch.
+     *
+     * @var int[]
+     */
+    private final int[] updateCounts;
+
+    /**
+     * Creates a new batch result instance.
+     *
+     * @param keys         The generated keys.
+     * @param updateCounts The update count of every row.
+     */
+    public BatchResult(List<Long> keys, int[] updateCounts)
+    {
+        this.keys = Collections.unmodifiableList(keys);
+        this.updateCounts = updateCounts;
+    }
+
+    /**
+     * Returns the keys generated by the database for the
+     * inserted rows, in the order they were inserted.
+     *
+     * @return List
+     */
+    public List<Long> getKeys()
+    {
+        return keys;
+    }
+
+    /**
+     * Returns the update count of every row in the batch, a row can report
+     * {@link Statement#SUCCESS_NO_INFO} if the driver doesn't know
+     * how many rows the statement affected.
+     *
+     * @return int[]
+     */
+    public int[] getUpdateCounts()
+    {
+        return updateCounts;
+    }
+
+    /**
+     * Returns the update count of the row at the given index.
+     *
+     * @param row The index of the row in the batch.
+     * @return Integer
+     */
+    public int getUpdateCount(int row)
+    {
+        return updateCounts[row];
+    }
+
+    /**
+     * Returns the total amount of rows affected by the batch, rows
+     * that didn't report an update count are not counted.
+     *
+     * @return Long
+     */
+    public long getTotalUpdateCount()
+    {
+        long total = 0;
+
+        for (int count : updateCounts) {
+            if (count > 0) {
+                total += count;
+            }
+        }
+
+        return total;
+    }
+
+    /**
+     * Returns the amount of rows in the batch.
+     *
+     * @return Integer
+     */
+    public int size()
+    {
+        return updateCounts.length;
+    }
+}
@@ -1,8 +1,12 @@
 package com.senither.library.database.utils;
 
+import java.util.Collection;
+
 public class Clause
 {
 
+    private static final int MAX_PADDED_LIST_SIZE = 64;
+
     private final String one;
     private final String identifier;
     private final Object two;
@@ -42,6 +46,25 @@ public class Clause
         return two;
     }
 
+    public boolean isList()
+    {
+        return two instanceof Collection;
+    }
+
+    public int getListSize()
+    {
+        int size = ((Collection<?>) two).size();
+
+        // Short lists are padded up to the next power of two by repeating their last
+        // value, so lists of a similar size shares the same query, long lists are
+        // left as they are, so they never grow past the parameter limit.
+        if (size <= 1 || size > MAX_PADDED_LIST_SIZE) {
+            return size;
+        }
+
+        return Integer.highestOneBit(size - 1) << 1;
+    }
+
     public OperatorType getOrder()
     {
         return order;
@@ -0,0 +1,80 @@
+package com.senither.library.database.utils;
+
+import java.util.Collections;
+import java.util.List;
+
+public class CompiledQuery
+{
+
+    /**
+     * The compiled SQL query, every value in the query
+     * is represented by a question mark placeholder.
+     *
+     * @var String
+     */
+    private final String query;
+
+    /**
+     * The values that should be bound to the query
+     * placeholders, in the order they appear in.
+     *
+     * @var List
+     */
+    private final List<Object> bindings;
+
+    /**
+     * Creates a new compiled query instance.
+     *
+     * @param query    The compiled SQL query.
+     * @param bindings The values for the query placeholders.
+     */
+    public CompiledQuery(String query, List<Object> bindings)
+    {
+        this.query = query;
+        this.bindings = Collections.unmodifiableList(bindings);
+    }
+
+    /**
+     * Returns the compiled SQL query.
+     *
+     * @return String
+     */
+    public String getQuery()
+    {
+        return query;
+    }
+
+    /**
+     * Returns the values that should be bound to the query placeholders.
+     *
+     * @return List
+     */
+    public List<Object> getBindings()
+    {
+        return bindings;
+    }
+
+    @Override
+    public boolean equals(Object obj)
+    {
+        if (!(obj instanceof CompiledQuery)) {
+            return false;
+        }
+
+        CompiledQuery other = (CompiledQuery) obj;
+
+        return query.equals(other.query) && bindings.equals(other.bindings);
+    }
+
+    @Override
+    public int hashCode()
+    {
+        return 31 * query.hashCode() + bindings.hashCode();
+    }
+
+    @Override
+    public String toString()
+    {
+        return query;
+    }
+}
@@ -7,13 +7,13 @@ public class DeleteGrammar extends Grammar
 
     public DeleteGrammar()
     {
-        query = "DELETE FROM ";
+        query.append("DELETE FROM ");
     }
 
     @Override
     public String format(QueryBuilder builder)
     {
-        addPart(String.format(" `%s`", builder.getTable()));
+        query.append(quote(builder.getTable()));
 
         buildWhereClause(builder);
 
@@ -23,8 +23,6 @@ public class DeleteGrammar extends Grammar
     @Override
     protected String finalize(QueryBuilder builder)
     {
-        addPart(";");
-
-        return query;
+        return query.append(';').toString();
     }
 }
@@ -2,23 +2,25 @@ package com.senither.library.database.utils;
 
 import com.senither.library.database.contacts.Grammar;
 import java.util.ArrayList;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 public class InsertGrammar extends Grammar
 {
 
-    private final List<String> keyset = new ArrayList<>();
+    protected final List<String> keyset = new ArrayList<>();
 
     public InsertGrammar()
     {
-        query = "INSERT INTO ";
+        query.append("INSERT INTO ");
     }
 
     @Override
     public String format(QueryBuilder builder)
     {
-        addPart(String.format(" `%s`", builder.getTable()));
+        query.append(quote(builder.getTable()));
 
         buildKeyset(builder);
 
@@ -27,49 +29,79 @@ public class InsertGrammar extends Grammar
         return finalize(builder);
     }
 
-    private void buildKeyset(QueryBuilder builder)
+    @Override
+    public List<Object> bind(QueryBuilder builder)
     {
-        List<Map<String, Object>> items = builder.getItems();
+        collectKeyset(builder);
 
-        items.stream().forEach((map) -> {
-            map.keySet().stream().filter((key) -> (!keyset.contains(key))).forEach((key) -> {
-                keyset.add(key);
-            });
-        });
+        for (Map<String, Object> item : builder.getItems()) {
+            for (String key : keyset) {
+                bindings.add(item.get(key));
+            }
+        }
 
-        addPart(" (");
+        return bindings;
+    }
 
-        keyset.stream().forEach((key) -> {
-            addPart(String.format("`%s`, ", key));
+    private void collectKeyset(QueryBuilder builder)
+    {
+        Set<String> keys = new LinkedHashSet<>();
+
+        builder.getItems().stream().forEach((map) -> {
+            keys.addAll(map.keySet());
         });
 
-        removeLast(2).addPart(")");
+        keyset.addAll(keys);
+    }
+
+    private void buildKeyset(QueryBuilder builder)
+    {
+        collectKeyset(builder);
+
+        // Every row renders the same placeholders, so the final length of the
+        // query is known up front, saving the builder from growing over
+        // and over again on wide multi-row inserts.
+        query.ensureCapacity(query.length() + (keyset.size() * 16) + (builder.getItems().size() * (keyset.size() * 2 + 4)));
+
+        query.append(" (");
+
+        for (int i = 0; i < keyset.size(); i++) {
+            if (i > 0) {
+                query.append(',');
+            }
+
+            query.append(quote(keyset.get(i)));
+        }
+
+        query.append(')');
     }
 
     private void buildValues(QueryBuilder builder)
     {
-        addPart(" VALUES ");
+        query.append(" VALUES ");
 
         List<Map<String, Object>> items = builder.getItems();
 
-        for (Map<String, Object> row : items) {
-            addPart(" (");
+        for (int row = 0; row < items.size(); row++) {
+            Map<String, Object> item = items.get(row);
 
-            keyset.stream().forEach((key) -> {
-                addPart((row.containsKey(key)) ? String.format("'%s', ", row.get(key)) : "NULL, ");
-            });
+            query.append(row > 0 ? ", (" : "(");
 
-            removeLast(2).addPart("),");
-        }
+            for (int i = 0; i < keyset.size(); i++) {
+                if (i > 0) {
+                    query.append(',');
+                }
+
+                query.append(parameter(item.get(keyset.get(i))));
+            }
 
-        removeLast(1);
+            query.append(')');
+        }
     }
 
     @Override
     protected String finalize(QueryBuilder builder)
     {
-        addPart(";");
-
-        return query;
+        return query.append(';').toString();
     }
 }
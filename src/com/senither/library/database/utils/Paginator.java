@@ -0,0 +1,132 @@
+package com.senither.library.database.utils;
+
+import com.senither.library.database.eloquent.Collection;
+
+public class Paginator
+{
+
+    /**
+     * The rows on the current page.
+     *
+     * @var Collection
+     */
+    private final Collection items;
+
+    /**
+     * The current page number, starting from 1.
+     *
+     * @var Integer
+     */
+    private final int page;
+
+    /**
+     * The maximum amount of rows on each page.
+     *
+     * @var Integer
+     */
+    private final int perPage;
+
+    /**
+     * The total amount of rows across every page, or -1
+     * if the total wasn't counted for the page.
+     *
+     * @var Long
+     */
+    private final long total;
+
+    /**
+     * Creates a new paginator instance.
+     *
+     * @param items   The rows on the current page.
+     * @param page    The current page number.
+     * @param perPage The maximum amount of rows on each page.
+     * @param total   The total amount of rows, or -1 if it wasn't counted.
+     */
+    public Paginator(Collection items, int page, int perPage, long total)
+    {
+        this.items = items;
+        this.page = page;
+        this.perPage = perPage;
+        this.total = total;
+    }
+
+    /**
+     * Returns the rows on the current page.
+     *
+     * @return Collection
+     */
+    public Collection getItems()
+    {
+        return items;
+    }
+
+    /**
+     * Returns the current page number, starting from 1.
+     *
+     * @return Integer
+     */
+    public int getPage()
+    {
+        return page;
+    }
+
+    /**
+     * Returns the maximum amount of rows on each page.
+     *
+     * @return Integer
+     */
+    public int getPerPage()
+    {
+        return perPage;
+    }
+
+    /**
+     * Returns the total amount of rows across every
+     * page, or -1 if the total wasn't counted.
+     *
+     * @return Long
+     */
+    public long getTotal()
+    {
+        return total;
+    }
+
+    /**
+     * Checks to see if the total amount of rows was counted.
+     *
+     * @return Boolean
+     */
+    public boolean hasTotal()
+    {
+        return total >= 0;
+    }
+
+    /**
+     * Returns the number of the last page, or -1 if the total wasn't counted.
+     *
+     * @return Integer
+     */
+    public int getLastPage()
+    {
+        if (!hasTotal()) {
+            return -1;
+        }
+
+        return (int) Math.max(1, (total + perPage - 1) / perPage);
+    }
+
+    /**
+     * Checks to see if there are more pages after the current page, if the
+     * total wasn't counted, a full page is assumed to have more pages.
+     *
+     * @return Boolean
+     */
+    public boolean hasMorePages()
+    {
+        if (hasTotal()) {
+            return page < getLastPage();
+        }
+
+        return items.size() >= perPage;
+    }
+}
@@ -1,29 +1,53 @@
 package com.senither.library.database.utils;
 
+import com.senither.library.database.DatabaseType;
 import com.senither.library.database.contacts.Database;
 import com.senither.library.database.contacts.Grammar;
 import com.senither.library.database.eloquent.Collection;
+import com.senither.library.database.eloquent.Cursor;
+import com.senither.library.database.eloquent.DataRow;
 import com.senither.library.database.eloquent.Eloquent;
+import com.senither.library.database.eloquent.RowMapper;
 import com.senither.library.exceptions.DatabaseException;
-import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
 public final class QueryBuilder
 {
 
+    private static final int MAX_SHAPES = 1024;
+
+    private static final Map<String, String> SHAPES = Collections.synchronizedMap(new LinkedHashMap<String, String>(16, 0.75F, true)
+    {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, String> eldest)
+        {
+            return size() > MAX_SHAPES;
+        }
+    });
+
     private QueryType type;
 
     private String table = null;
 
     private int limit = -1;
 
+    private int offset = 0;
+
     private final List<String> order = new ArrayList<>();
 
     private final List<Clause> wheres = new ArrayList<>();
@@ -34,6 +58,22 @@ public final class QueryBuilder
 
     private final List<Map<String, Object>> items = new ArrayList<>();
 
+    private final List<String> groups = new ArrayList<>();
+
+    private final List<Clause> havings = new ArrayList<>();
+
+    private String aggregateFunction = null;
+
+    private final List<String> uniqueBy = new ArrayList<>();
+
+    private List<String> updateColumns = null;
+
+    private DatabaseType dialect = null;
+
+    private String aggregateColumn = null;
+
+    private Duration cacheLifetime = null;
+
     public QueryBuilder()
     {
     }
@@ -55,6 +95,11 @@ public final class QueryBuilder
         return this;
     }
 
+    public QueryType getType()
+    {
+        return type;
+    }
+
     public String getTable()
     {
         return table;
@@ -114,6 +159,18 @@ public final class QueryBuilder
         return limit;
     }
 
+    public QueryBuilder offset(int offset)
+    {
+        this.offset = Math.max(offset, 0);
+
+        return this;
+    }
+
+    public int getOffset()
+    {
+        return offset;
+    }
+
     public QueryBuilder where(String column, Object field)
     {
         return where(column, "=", field);
@@ -150,11 +207,64 @@ public final class QueryBuilder
         return where(column, identifier, field);
     }
 
+    public QueryBuilder whereIn(String column, java.util.Collection<?> values)
+    {
+        wheres.add(new Clause(column, "IN", new ArrayList<>(values)));
+
+        return this;
+    }
+
+    public QueryBuilder whereNotIn(String column, java.util.Collection<?> values)
+    {
+        wheres.add(new Clause(column, "NOT IN", new ArrayList<>(values)));
+
+        return this;
+    }
+
     public List<Clause> getWhereClauses()
     {
         return wheres;
     }
 
+    public QueryBuilder groupBy(String... columns)
+    {
+        groups.addAll(Arrays.asList(columns));
+
+        return this;
+    }
+
+    public List<String> getGroups()
+    {
+        return groups;
+    }
+
+    public QueryBuilder having(String column, Object field)
+    {
+        return having(column, "=", field);
+    }
+
+    public QueryBuilder having(String column, String identifier, Object field)
+    {
+        havings.add(new Clause(column, identifier, field));
+
+        return this;
+    }
+
+    public List<Clause> getHavingClauses()
+    {
+        return havings;
+    }
+
+    public String getAggregateFunction()
+    {
+        return aggregateFunction;
+    }
+
+    public String getAggregateColumn()
+    {
+        return aggregateColumn;
+    }
+
     public QueryBuilder orderBy(String field)
     {
         return orderBy(field, "ASC");
@@ -296,11 +406,32 @@ public final class QueryBuilder
         return this;
     }
 
+    public Set<String> getTables()
+    {
+        Set<String> tables = new LinkedHashSet<>();
+
+        tables.add(table);
+        joins.stream().forEach((join) -> {
+            tables.add(join.table);
+        });
+
+        return tables;
+    }
+
     public List<JoinClause> getJoins()
     {
         return joins;
     }
 
+    public QueryBuilder insert(Map<String, Object> item)
+    {
+        type = QueryType.INSERT;
+
+        this.items.add(item);
+
+        return this;
+    }
+
     public QueryBuilder insert(Map<String, Object>... items)
     {
         type = QueryType.INSERT;
@@ -315,6 +446,64 @@ public final class QueryBuilder
         return insert(buildMapFromArrays(arrays));
     }
 
+    public QueryBuilder upsert(List<Map<String, Object>> rows, List<String> uniqueBy)
+    {
+        return upsert(rows, uniqueBy, null);
+    }
+
+    public QueryBuilder upsert(List<Map<String, Object>> rows, List<String> uniqueBy, List<String> updateColumns)
+    {
+        if (uniqueBy == null || uniqueBy.isEmpty()) {
+            throw new DatabaseException("An upsert needs at least one unique column to detect conflicting rows.");
+        }
+
+        type = QueryType.UPSERT;
+
+        this.items.addAll(rows);
+        this.uniqueBy.clear();
+        this.uniqueBy.addAll(uniqueBy);
+        this.updateColumns = updateColumns == null ? null : new ArrayList<>(updateColumns);
+
+        return this;
+    }
+
+    public List<String> getUniqueBy()
+    {
+        return uniqueBy;
+    }
+
+    public List<String> getUpdateColumns()
+    {
+        return updateColumns;
+    }
+
+    public QueryBuilder dialect(DatabaseType dialect)
+    {
+        this.dialect = dialect;
+
+        return this;
+    }
+
+    public DatabaseType getDialect()
+    {
+        if (dialect != null) {
+            return dialect;
+        }
+
+        Database connection = Eloquent.getConnection();
+
+        return connection == null ? DatabaseType.MYSQL : connection.getType();
+    }
+
+    public QueryBuilder update(Map<String, Object> item)
+    {
+        type = QueryType.UPDATE;
+
+        this.items.add(item);
+
+        return this;
+    }
+
     public QueryBuilder update(Map<String, Object>... items)
     {
         type = QueryType.UPDATE;
@@ -349,6 +538,17 @@ public final class QueryBuilder
         return items;
     }
 
+    public List<String> getItemKeys()
+    {
+        Set<String> keys = new LinkedHashSet<>();
+
+        items.stream().forEach((item) -> {
+            keys.addAll(item.keySet());
+        });
+
+        return new ArrayList<>(keys);
+    }
+
     public QueryBuilder delete()
     {
         type = QueryType.DELETE;
@@ -356,6 +556,48 @@ public final class QueryBuilder
         return this;
     }
 
+    public QueryBuilder copy()
+    {
+        QueryBuilder copy = new QueryBuilder();
+
+        copy.type = type;
+        copy.table = table;
+        copy.limit = limit;
+        copy.offset = offset;
+        copy.cacheLifetime = cacheLifetime;
+
+        copy.order.addAll(order);
+        copy.wheres.addAll(wheres);
+        copy.columns.addAll(columns);
+        copy.joins.addAll(joins);
+        copy.items.addAll(items);
+        copy.groups.addAll(groups);
+        copy.havings.addAll(havings);
+        copy.aggregateFunction = aggregateFunction;
+        copy.aggregateColumn = aggregateColumn;
+        copy.uniqueBy.addAll(uniqueBy);
+        copy.updateColumns = updateColumns;
+        copy.dialect = dialect;
+
+        return copy;
+    }
+
+    public QueryBuilder remember(Duration lifetime)
+    {
+        if (lifetime != null && (lifetime.isNegative() || lifetime.isZero())) {
+            throw new DatabaseException("The cache lifetime must be a positive duration.");
+        }
+
+        cacheLifetime = lifetime;
+
+        return this;
+    }
+
+    public Duration getCacheLifetime()
+    {
+        return cacheLifetime;
+    }
+
     public Collection get()
     {
         Database connection = Eloquent.getConnection();
@@ -365,9 +607,19 @@ public final class QueryBuilder
         }
 
         try {
-            ResultSet result = connection.query(this);
+            List<QueryBuilder> chunks = splitByParameterLimit(connection.getParameterLimit());
 
-            return new Collection(result);
+            if (chunks == null) {
+                return connection.get(this);
+            }
+
+            Collection result = connection.query(chunks.get(0), Collection::new);
+
+            for (int i = 1; i < chunks.size(); i++) {
+                connection.query(chunks.get(i), result::append);
+            }
+
+            return result;
         } catch (SQLException ex) {
             Logger.getLogger(Eloquent.class.getName()).log(Level.SEVERE, null, ex);
         }
@@ -375,19 +627,487 @@ public final class QueryBuilder
         return null;
     }
 
-    public String toSQL()
+    public <T> List<T> get(Class<T> type)
+    {
+        Database connection = Eloquent.getConnection();
+
+        if (connection == null) {
+            throw new DatabaseException("");
+        }
+
+        RowMapper<T> mapper = RowMapper.of(type);
+
+        try {
+            List<QueryBuilder> chunks = splitByParameterLimit(connection.getParameterLimit());
+
+            if (chunks == null) {
+                return connection.query(this, mapper::map);
+            }
+
+            List<T> result = new ArrayList<>();
+
+            for (QueryBuilder chunk : chunks) {
+                connection.query(chunk, (rows) -> mapper.map(rows, result));
+            }
+
+            return result;
+        } catch (SQLException ex) {
+            Logger.getLogger(Eloquent.class.getName()).log(Level.SEVERE, null, ex);
+        }
+
+        return null;
+    }
+
+    public Cursor cursor()
+    {
+        Database connection = Eloquent.getConnection();
+
+        if (connection == null) {
+            throw new DatabaseException("");
+        }
+
+        return cursor(connection.getFetchSize());
+    }
+
+    public Cursor cursor(int fetchSize)
+    {
+        Database connection = Eloquent.getConnection();
+
+        if (connection == null) {
+            throw new DatabaseException("");
+        }
+
+        try {
+            return connection.cursor(this, fetchSize);
+        } catch (SQLException ex) {
+            throw new DatabaseException("Failed to open the cursor: " + ex.getMessage());
+        }
+    }
+
+    public Stream<DataRow> stream()
+    {
+        return cursor().stream();
+    }
+
+    public long count()
+    {
+        return count("*");
+    }
+
+    public long count(String column)
+    {
+        if (!groups.isEmpty()) {
+            if (!column.equals("*")) {
+                throw new DatabaseException("Grouped queries can only be counted using count(), which counts the amount of groups.");
+            }
+
+            Database connection = Eloquent.getConnection();
+
+            if (connection == null) {
+                throw new DatabaseException("");
+            }
+
+            try {
+                return countGroups(connection);
+            } catch (SQLException ex) {
+                Logger.getLogger(Eloquent.class.getName()).log(Level.SEVERE, null, ex);
+            }
+
+            return 0L;
+        }
+
+        DataRow row = aggregate("COUNT", column);
+
+        return row == null ? 0L : row.getLong(0);
+    }
+
+    public double sum(String column)
+    {
+        DataRow row = aggregate("SUM", column);
+
+        return row == null ? 0D : row.getDouble(0);
+    }
+
+    public double avg(String column)
+    {
+        DataRow row = aggregate("AVG", column);
+
+        return row == null ? 0D : row.getDouble(0);
+    }
+
+    public Object max(String column)
+    {
+        DataRow row = aggregate("MAX", column);
+
+        return row == null ? null : row.get(0);
+    }
+
+    public Object min(String column)
+    {
+        DataRow row = aggregate("MIN", column);
+
+        return row == null ? null : row.get(0);
+    }
+
+    private DataRow aggregate(String function, String column)
+    {
+        if (!groups.isEmpty()) {
+            throw new DatabaseException("The " + function + " aggregate can't be used on grouped queries, since it would only return the value of the first group.");
+        }
+
+        QueryBuilder query = copy().select().noLimit().offset(0);
+
+        query.order.clear();
+        query.aggregateFunction = function;
+        query.aggregateColumn = column;
+
+        Collection result = query.get();
+
+        if (result == null || result.isEmpty() || result.all().get(0).get(0) == null) {
+            return null;
+        }
+
+        return result.all().get(0);
+    }
+
+    public void chunk(int size, Consumer<Collection> callback)
     {
+        chunkById(size, "id", callback);
+    }
+
+    public void chunkById(int size, String column, Consumer<Collection> callback)
+    {
+        if (size < 1) {
+            throw new DatabaseException("The chunk size cannot be below 1.");
+        }
+
+        // The keyset clause is joined to the query with an AND, which would bind tighter
+        // than an OR clause in the query, making the pages overlap or never end.
+        for (Clause clause : wheres) {
+            if (clause.getOrder() == OperatorType.OR) {
+                throw new DatabaseException("Chunking by id can not be used with or-where clauses.");
+            }
+        }
+
+        String label = column.substring(column.lastIndexOf('.') + 1);
+        Object lastId = null;
+
+        while (true) {
+            QueryBuilder page = copy().offset(0).limit(size);
+
+            page.order.clear();
+            page.orderBy(column);
+
+            if (!page.columns.contains("*")) {
+                page.addColumn(column);
+            }
+
+            if (lastId != null) {
+                page.where(column, ">", lastId);
+            }
+
+            Collection result = page.get();
+
+            if (result == null || result.isEmpty()) {
+                return;
+            }
+
+            callback.accept(result);
+
+            if (result.size() < size) {
+                return;
+            }
+
+            List<Object> ids = result.get(label);
+            lastId = ids.get(ids.size() - 1);
+
+            if (lastId == null) {
+                throw new DatabaseException("Chunking by id requires the " + column + " column to be non-null.");
+            }
+        }
+    }
+
+    public Paginator paginate(int page, int perPage)
+    {
+        return paginate(page, perPage, true);
+    }
+
+    public Paginator paginate(int page, int perPage, boolean withCount)
+    {
+        if (page < 1 || perPage < 1) {
+            throw new DatabaseException("The page and the amount of rows per page must be at least 1.");
+        }
+
+        Database connection = Eloquent.getConnection();
+
+        if (connection == null) {
+            throw new DatabaseException("");
+        }
+
+        Collection items = copy().limit(perPage).offset((page - 1) * perPage).get();
+
+        if (items == null) {
+            return null;
+        }
+
+        if (!withCount) {
+            return new Paginator(items, page, perPage, -1);
+        }
+
+        if (groups.isEmpty()) {
+            return new Paginator(items, page, perPage, count());
+        }
+
         try {
-            Grammar grammar = (Grammar) type.getGrammar().newInstance();
+            return new Paginator(items, page, perPage, countGroups(connection));
+        } catch (SQLException ex) {
+            Logger.getLogger(Eloquent.class.getName()).log(Level.SEVERE, null, ex);
+        }
+
+        return null;
+    }
+
+    private long countGroups(Database connection) throws SQLException
+    {
+        // Grouped queries has to be counted as a subquery, since counting
+        // them directly would return the size of each group instead.
+        QueryBuilder count = copy().noLimit().offset(0);
+        count.order.clear();
+
+        CompiledQuery query = count.compile();
+        String sql = query.getQuery().substring(0, query.getQuery().length() - 1);
 
-            return grammar.format(this);
-        } catch (InstantiationException | IllegalAccessException ex) {
-            Logger.getLogger(QueryBuilder.class.getName()).log(Level.SEVERE, null, ex);
+        return connection.query("SELECT COUNT(*) FROM (" + sql + ") AS `group_count`;", query.getBindings(), (result) -> {
+            return result.next() ? result.getLong(1) : 0L;
+        });
+    }
+
+    public CompletableFuture<Collection> getAsync()
+    {
+        Database connection = Eloquent.getConnection();
+
+        if (connection == null) {
+            throw new DatabaseException("");
+        }
+
+        return connection.queryAsync(this);
+    }
+
+    public void getAsync(Consumer<Collection> callback)
+    {
+        Database connection = Eloquent.getConnection();
+
+        getAsync().whenCompleteAsync((result, ex) -> {
+            if (ex != null) {
+                Logger.getLogger(Eloquent.class.getName()).log(Level.SEVERE, null, ex);
+                return;
+            }
+
+            callback.accept(result);
+        }, connection.getMainThreadExecutor());
+    }
+
+    public BatchResult batch()
+    {
+        Database connection = Eloquent.getConnection();
+
+        if (connection == null) {
+            throw new DatabaseException("");
+        }
+
+        try {
+            return connection.batch(this);
+        } catch (SQLException ex) {
+            Logger.getLogger(Eloquent.class.getName()).log(Level.SEVERE, null, ex);
         }
 
         return null;
     }
 
+    public String toBatchSQL()
+    {
+        if (type != QueryType.INSERT && type != QueryType.UPSERT) {
+            throw new DatabaseException("Only insert and upsert queries can be executed as a batch.");
+        }
+
+        Map<String, Object> row = new LinkedHashMap<>();
+
+        getItemKeys().stream().forEach((key) -> {
+            row.put(key, null);
+        });
+
+        if (type == QueryType.UPSERT) {
+            return new QueryBuilder().from(table).dialect(getDialect()).upsert(Arrays.asList(row), uniqueBy, updateColumns).toSQL();
+        }
+
+        return new QueryBuilder().from(table).insert(row).toSQL();
+    }
+
+    public CompiledQuery compile()
+    {
+        if (type == null) {
+            throw new DatabaseException("The query type must be set before the query can be compiled.");
+        }
+
+        Grammar grammar = type.createGrammar();
+
+        // Builders with the same shape always format to the same query, so once a shape
+        // has been formatted, only the values for the placeholders has to be collected.
+        String shape = getShape();
+        String query = SHAPES.get(shape);
+
+        if (query != null) {
+            return new CompiledQuery(query, grammar.bind(this));
+        }
+
+        query = grammar.format(this);
+
+        SHAPES.put(shape, query);
+
+        return new CompiledQuery(query, grammar.getBindings());
+    }
+
+    private String getShape()
+    {
+        StringBuilder shape = new StringBuilder(64);
+
+        shape.append(type.ordinal()).append('\0').append(table).append('\0').append(limit > 0).append('\1').append(limit > 0 && offset > 0);
+
+        shape.append('\0');
+        columns.stream().forEach((column) -> {
+            shape.append(column).append('\1');
+        });
+
+        shape.append('\0');
+        joins.stream().forEach((join) -> {
+            shape.append(join.type).append('\1').append(join.table).append('\1');
+
+            join.clauses.stream().forEach((clause) -> {
+                appendClauseShape(shape, clause).append(clause.getTwo()).append('\1');
+            });
+
+            shape.append('\2');
+        });
+
+        shape.append('\0');
+        wheres.stream().forEach((clause) -> {
+            appendClauseShape(shape, clause);
+        });
+
+        shape.append('\0');
+        order.stream().forEach((field) -> {
+            shape.append(field).append('\1');
+        });
+
+        shape.append('\0');
+        groups.stream().forEach((group) -> {
+            shape.append(group).append('\1');
+        });
+
+        shape.append('\0');
+        havings.stream().forEach((clause) -> {
+            appendClauseShape(shape, clause);
+        });
+
+        shape.append('\0').append(aggregateFunction).append('\1').append(aggregateColumn);
+
+        if (type == QueryType.INSERT || type == QueryType.UPDATE || type == QueryType.UPSERT) {
+            shape.append('\0');
+            getItemKeys().stream().forEach((key) -> {
+                shape.append(key).append('\1');
+            });
+
+            if (type != QueryType.UPDATE) {
+                shape.append('\0').append(items.size());
+            }
+        }
+
+        if (type == QueryType.UPSERT) {
+            shape.append('\0').append(getDialect()).append('\0').append(uniqueBy).append('\0').append(updateColumns);
+        }
+
+        return shape.toString();
+    }
+
+    private StringBuilder appendClauseShape(StringBuilder shape, Clause clause)
+    {
+        OperatorType operator = clause.getOrder() == null ? OperatorType.AND : clause.getOrder();
+
+        shape.append(clause.getOne()).append('\1').append(clause.getIdentifier()).append('\1').append(operator.name()).append('\1');
+
+        if (clause.isList()) {
+            shape.append(clause.getListSize()).append('\1');
+        }
+
+        return shape;
+    }
+
+    private List<QueryBuilder> splitByParameterLimit(int parameterLimit)
+    {
+        if (type != QueryType.SELECT) {
+            return null;
+        }
+
+        Clause largest = null;
+        int parameters = 0;
+
+        for (Clause clause : wheres) {
+            // Splitting a query is only safe if every row matched by the query is matched
+            // by exactly one of the split queries, and if the rows from each query can
+            // simply be added together, or clauses, limits, ordering, grouping and
+            // aggregates all depend on seeing every row at once.
+            if (clause.getOrder() == OperatorType.OR) {
+                return null;
+            }
+
+            int size = clause.isList() ? clause.getListSize() : 1;
+            parameters += size;
+
+            if (clause.isList() && clause.getIdentifier().equalsIgnoreCase("IN") && (largest == null || size > largest.getListSize())) {
+                largest = clause;
+            }
+        }
+
+        for (Clause clause : havings) {
+            parameters += clause.isList() ? clause.getListSize() : 1;
+        }
+
+        if (largest == null || parameters <= parameterLimit) {
+            return null;
+        }
+
+        if (limit > 0 || offset > 0 || !order.isEmpty() || !groups.isEmpty() || !havings.isEmpty() || aggregateFunction != null) {
+            return null;
+        }
+
+        // Duplicate values are removed, so no row can be matched by two of the split queries.
+        List<Object> values = new ArrayList<>(new LinkedHashSet<>((java.util.Collection<?>) largest.getTwo()));
+        int chunkSize = parameterLimit - (parameters - largest.getListSize());
+
+        if (chunkSize < 1) {
+            return null;
+        }
+
+        List<QueryBuilder> chunks = new ArrayList<>();
+
+        for (int i = 0; i < values.size(); i += chunkSize) {
+            QueryBuilder chunk = copy();
+            int index = chunk.wheres.indexOf(largest);
+
+            chunk.wheres.set(index, new Clause(largest.getOne(), largest.getIdentifier(), values.subList(i, Math.min(i + chunkSize, values.size())), largest.getOrder()));
+            chunks.add(chunk);
+        }
+
+        return chunks;
+    }
+
+    public String toSQL()
+    {
+        CompiledQuery query = compile();
+
+        return query == null ? null : query.getQuery();
+    }
+
     @Override
     public String toString()
     {
@@ -0,0 +1,403 @@
+package com.senither.library.database.utils;
+
+import com.senither.library.database.eloquent.Collection;
+import com.senither.library.exceptions.DatabaseException;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+public class QueryCache
+{
+
+    /**
+     * Represents the cached results, keyed by their compiled query, the
+     * map is kept in access order so the least recently used
+     * results are the first to be evicted.
+     *
+     * @var LinkedHashMap
+     */
+    private final LinkedHashMap<CompiledQuery, Entry> entries = new LinkedHashMap<>(16, 0.75F, true);
+
+    /**
+     * Represents the maximum total weight of the cached results, the weight
+     * of a result is the amount of cells it holds, so a few large
+     * results can't push the server out of memory.
+     *
+     * @var Long
+     */
+    private long maximumWeight = 100000L;
+
+    /**
+     * Represents the total weight of the cached results.
+     *
+     * @var Long
+     */
+    private long weight = 0L;
+
+    /**
+     * Represents the amount of times the cache has been invalidated, results
+     * queried before an invalidation are never cached, since they might
+     * have been read before the write that invalidated the cache.
+     *
+     * @var AtomicLong
+     */
+    private final AtomicLong version = new AtomicLong(0L);
+
+    /**
+     * Represents the amount of times a result was served from the cache.
+     *
+     * @var LongAdder
+     */
+    private final LongAdder hits = new LongAdder();
+
+    /**
+     * Represents the amount of times a result wasn't cached, or had expired.
+     *
+     * @var LongAdder
+     */
+    private final LongAdder misses = new LongAdder();
+
+    /**
+     * Represents the amount of results that was removed
+     * from the cache to stay below the maximum weight.
+     *
+     * @var LongAdder
+     */
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * Represents the amount of results that was removed from the
+     * cache because a write touched one of their tables.
+     *
+     * @var LongAdder
+     */
+    private final LongAdder invalidations = new LongAdder();
+
+    /**
+     * Represents the listeners that are notified with the normalized
+     * table name every time a table is invalidated, allowing other
+     * caches to share the invalidation of the query cache.
+     *
+     * @var CopyOnWriteArrayList
+     */
+    private final CopyOnWriteArrayList<Consumer<String>> listeners = new CopyOnWriteArrayList<>();
+
+    /**
+     * Returns a copy of the cached result for the given query, or
+     * null if the result isn't cached, or has expired.
+     *
+     * @param query The compiled query.
+     * @return Collection
+     */
+    public synchronized Collection get(CompiledQuery query)
+    {
+        Entry entry = entries.get(query);
+
+        if (entry != null && entry.expiresAt <= System.currentTimeMillis()) {
+            remove(query);
+            entry = null;
+        }
+
+        if (entry == null) {
+            misses.increment();
+
+            return null;
+        }
+
+        hits.increment();
+
+        return entry.result.copy();
+    }
+
+    /**
+     * Caches a copy of the result of the given query, the result is only cached if the
+     * cache hasn't been invalidated since the given version was read, the
+     * least recently used results are evicted to make room for it.
+     *
+     * @param query    The compiled query.
+     * @param tables   The tables the query reads from.
+     * @param result   The query result.
+     * @param lifetime The amount of time in milliseconds the result should be cached for.
+     * @param version  The cache version read before the query was sent to the database.
+     */
+    public synchronized void put(CompiledQuery query, Set<String> tables, Collection result, long lifetime, long version)
+    {
+        if (lifetime <= 0 || version != this.version.get()) {
+            return;
+        }
+
+        long size = Math.max(1L, (long) result.size() * Math.max(1, result.getSchema().size()));
+        if (size > maximumWeight) {
+            return;
+        }
+
+        remove(query);
+
+        Set<String> names = new HashSet<>();
+        tables.stream().forEach((table) -> {
+            names.add(normalize(table));
+        });
+
+        entries.put(query, new Entry(result.copy(), names, size, System.currentTimeMillis() + lifetime));
+        weight += size;
+
+        Iterator<Map.Entry<CompiledQuery, Entry>> iterator = entries.entrySet().iterator();
+        while (weight > maximumWeight && iterator.hasNext()) {
+            Map.Entry<CompiledQuery, Entry> eldest = iterator.next();
+
+            iterator.remove();
+            weight -= eldest.getValue().weight;
+            evictions.increment();
+        }
+    }
+
+    /**
+     * Removes every cached result that reads from the given table.
+     *
+     * @param table The table that was written to.
+     */
+    public void invalidate(String table)
+    {
+        String name = normalize(table);
+
+        synchronized (this) {
+            version.incrementAndGet();
+
+            Iterator<Entry> iterator = entries.values().iterator();
+            while (iterator.hasNext()) {
+                Entry entry = iterator.next();
+
+                if (entry.tables.contains(name)) {
+                    iterator.remove();
+                    weight -= entry.weight;
+                    invalidations.increment();
+                }
+            }
+        }
+
+        listeners.stream().forEach((listener) -> {
+            listener.accept(name);
+        });
+    }
+
+    /**
+     * Removes every cached result that reads from any of the given tables.
+     *
+     * @param tables The tables that was written to.
+     */
+    public void invalidate(Set<String> tables)
+    {
+        tables.stream().forEach(this::invalidate);
+    }
+
+    /**
+     * Removes every result from the cache.
+     */
+    public synchronized void flush()
+    {
+        version.incrementAndGet();
+
+        entries.clear();
+        weight = 0L;
+    }
+
+    /**
+     * Adds a listener that is called with the normalized table
+     * name every time a table is invalidated.
+     *
+     * @param listener The listener to add.
+     * @return QueryCache
+     */
+    public QueryCache addInvalidationListener(Consumer<String> listener)
+    {
+        listeners.addIfAbsent(listener);
+
+        return this;
+    }
+
+    /**
+     * Removes the given invalidation listener.
+     *
+     * @param listener The listener to remove.
+     * @return QueryCache
+     */
+    public QueryCache removeInvalidationListener(Consumer<String> listener)
+    {
+        listeners.remove(listener);
+
+        return this;
+    }
+
+    /**
+     * Returns the current version of the cache, the version
+     * is changed every time the cache is invalidated.
+     *
+     * @return Long
+     */
+    public long getVersion()
+    {
+        return version.get();
+    }
+
+    /**
+     * Returns the amount of cached results.
+     *
+     * @return Integer
+     */
+    public synchronized int size()
+    {
+        return entries.size();
+    }
+
+    /**
+     * Returns the total weight of the cached results.
+     *
+     * @return Long
+     */
+    public synchronized long getWeight()
+    {
+        return weight;
+    }
+
+    /**
+     * Returns the maximum total weight of the cached results.
+     *
+     * @return Long
+     */
+    public long getMaximumWeight()
+    {
+        return maximumWeight;
+    }
+
+    /**
+     * Sets the maximum total weight of the cached results, the weight
+     * of a result is the amount of rows times the amount of columns.
+     *
+     * @param maximumWeight The maximum weight.
+     * @return QueryCache
+     */
+    public synchronized QueryCache setMaximumWeight(long maximumWeight)
+    {
+        if (maximumWeight < 1) {
+            throw new DatabaseException("The maximum query cache weight cannot be below 1.");
+        }
+
+        this.maximumWeight = maximumWeight;
+
+        return this;
+    }
+
+    /**
+     * Returns the amount of times a result was served from the cache.
+     *
+     * @return Long
+     */
+    public long getHits()
+    {
+        return hits.sum();
+    }
+
+    /**
+     * Returns the amount of times a result wasn't found in the cache.
+     *
+     * @return Long
+     */
+    public long getMisses()
+    {
+        return misses.sum();
+    }
+
+    /**
+     * Returns the amount of results that was evicted to stay below the maximum weight.
+     *
+     * @return Long
+     */
+    public long getEvictions()
+    {
+        return evictions.sum();
+    }
+
+    /**
+     * Returns the amount of results that was removed because their tables was written to.
+     *
+     * @return Long
+     */
+    public long getInvalidations()
+    {
+        return invalidations.sum();
+    }
+
+    /**
+     * Returns the ratio of lookups that was served from
+     * the cache, as a number between 0 and 1.
+     *
+     * @return Double
+     */
+    public double getHitRatio()
+    {
+        long hit = getHits();
+        long total = hit + getMisses();
+
+        return total == 0 ? 0D : (double) hit / total;
+    }
+
+    @Override
+    public String toString()
+    {
+        return String.format("QueryCache{size=%d, weight=%d, hits=%d, misses=%d, evictions=%d, invalidations=%d, hitRatio=%.2f}",
+                size(), getWeight(), getHits(), getMisses(), getEvictions(), getInvalidations(), getHitRatio()
+        );
+    }
+
+    /**
+     * Removes the cached result of the given query.
+     *
+     * @param query The compiled query.
+     */
+    private void remove(CompiledQuery query)
+    {
+        Entry entry = entries.remove(query);
+
+        if (entry != null) {
+            weight -= entry.weight;
+        }
+    }
+
+    /**
+     * Normalizes the given table name, stripping aliases, schema
+     * prefixes and quotes, so reads and writes to the same
+     * table always resolves to the same name.
+     *
+     * @param table The table name to normalize.
+     * @return String
+     */
+    public static String normalize(String table)
+    {
+        String name = table.trim().split(" ")[0];
+
+        return name.substring(name.lastIndexOf('.') + 1).replace("`", "").replace("\"", "").toLowerCase();
+    }
+
+    private static class Entry
+    {
+
+        private final Collection result;
+        private final Set<String> tables;
+        private final long weight;
+        private final long expiresAt;
+
+        Entry(Collection result, Set<String> tables, long weight, long expiresAt)
+        {
+            this.result = result;
+            this.tables = tables;
+            this.weight = weight;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
@@ -1,27 +1,33 @@
 package com.senither.library.database.utils;
 
-import com.senither.library.database.utils.DeleteGrammar;
-import com.senither.library.database.utils.InsertGrammar;
-import com.senither.library.database.utils.SelectGrammar;
-import com.senither.library.database.utils.UpdateGrammar;
+import com.senither.library.database.contacts.Grammar;
+import java.util.function.Supplier;
 
 public enum QueryType
 {
 
-    SELECT(SelectGrammar.class),
-    INSERT(InsertGrammar.class),
-    UPDATE(UpdateGrammar.class),
-    DELETE(DeleteGrammar.class);
+    SELECT(SelectGrammar.class, SelectGrammar::new),
+    INSERT(InsertGrammar.class, InsertGrammar::new),
+    UPDATE(UpdateGrammar.class, UpdateGrammar::new),
+    UPSERT(UpsertGrammar.class, UpsertGrammar::new),
+    DELETE(DeleteGrammar.class, DeleteGrammar::new);
 
     private final Class grammar;
+    private final Supplier<Grammar> factory;
 
-    private QueryType(Class grammar)
+    private QueryType(Class grammar, Supplier<Grammar> factory)
     {
         this.grammar = grammar;
+        this.factory = factory;
     }
 
     public Class getGrammar()
     {
         return grammar;
     }
+
+    public Grammar createGrammar()
+    {
+        return factory.get();
+    }
 }
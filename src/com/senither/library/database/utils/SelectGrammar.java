@@ -8,7 +8,7 @@ public class SelectGrammar extends Grammar
 
     public SelectGrammar()
     {
-        query = "SELECT ";
+        query.append("SELECT ");
     }
 
     @Override
@@ -20,22 +20,46 @@ public class SelectGrammar extends Grammar
 
         buildWhereClause(builder);
 
+        buildGroups(builder);
+
         return finalize(builder);
     }
 
+    @Override
+    public List<Object> bind(QueryBuilder builder)
+    {
+        bindWhereClause(builder);
+
+        bindClauses(builder.getHavingClauses());
+
+        bindLimit(builder);
+
+        return bindings;
+    }
+
     private void buildColumns(QueryBuilder builder)
     {
-        if (builder.getColumns().size() == 1 && builder.getColumns().get(0).equals("*")) {
-            query += "*";
+        List<String> columns = builder.getColumns();
+
+        if (builder.getAggregateFunction() != null) {
+            String column = builder.getAggregateColumn();
+
+            query.append(builder.getAggregateFunction()).append('(');
+            query.append(column.equals("*") ? column : formatField(column)).append(')');
+        } else if (columns.size() == 1 && columns.get(0).equals("*")) {
+            query.append('*');
         } else {
-            builder.getColumns().stream().forEach((column) -> {
-                query += formatField(column) + ", ";
-            });
+            for (int i = 0; i < columns.size(); i++) {
+                if (i > 0) {
+                    query.append(", ");
+                }
 
-            removeLast(2);
+                appendField(columns.get(i));
+            }
         }
 
-        query += String.format(" FROM %s ", formatField(builder.getTable()));
+        query.append(" FROM ");
+        appendField(builder.getTable());
     }
 
     private void buildJoins(QueryBuilder builder)
@@ -47,60 +71,91 @@ public class SelectGrammar extends Grammar
                 continue;
             }
 
-            addPart(String.format(" %s JOIN %s ON ", join.type.toUpperCase(), formatField(join.table)));
-
-            int orderLength = 0;
+            query.append(' ').append(join.type.toUpperCase()).append(" JOIN ");
+            appendField(join.table);
+            query.append(" ON ");
 
-            for (Clause clause : join.clauses) {
-                String string = String.format(" %s %s %s",
-                /* >_> */ formatField(clause.getOne()), clause.getIdentifier(), formatField((String) clause.getTwo())
-                );
+            for (int i = 0; i < join.clauses.size(); i++) {
+                Clause clause = join.clauses.get(i);
 
                 if (clause.getOrder() == null) {
                     clause.setOrder(OperatorType.AND);
                 }
 
-                String operator = clause.getOrder().getOperator();
+                if (i > 0) {
+                    query.append(' ').append(join.clauses.get(i - 1).getOrder().getOperator()).append(' ');
+                }
 
-                orderLength = operator.length() + 2;
-                addPart(String.format(string + " %s ", operator));
+                appendField(clause.getOne());
+                query.append(' ').append(clause.getIdentifier()).append(' ');
+                appendField((String) clause.getTwo());
             }
+        }
+    }
 
-            if (orderLength > 0) {
-                removeLast(orderLength);
+    private void buildGroups(QueryBuilder builder)
+    {
+        List<String> groups = builder.getGroups();
+
+        if (!groups.isEmpty()) {
+            query.append(" GROUP BY ");
+
+            for (int i = 0; i < groups.size(); i++) {
+                if (i > 0) {
+                    query.append(", ");
+                }
+
+                appendField(groups.get(i));
             }
         }
+
+        buildClauses(" HAVING ", builder.getHavingClauses());
     }
 
     @Override
     protected String finalize(QueryBuilder builder)
     {
-        if (!builder.getOrder().isEmpty()) {
-            addPart(" ORDER BY ");
+        List<String> orders = builder.getOrder();
 
-            List<String> orders = builder.getOrder();
+        if (!orders.isEmpty()) {
+            query.append(" ORDER BY ");
 
+            // The order list holds pairs of fields and directions,
+            // so every second entry starts a new order clause.
             for (int i = 0; i < orders.size(); i++) {
                 String field = orders.get(i);
 
-                addPart(String.format(" %s ",
-                orderOperators.contains(field.toUpperCase()) ? field.toUpperCase() : formatField(field))
-                );
-
-                if ((i + 1) % 2 == 0) {
-                    addPart(", ");
+                if (i > 0) {
+                    query.append(i % 2 == 0 ? ", " : " ");
                 }
-            }
 
-            removeLast(2);
+                query.append(orderOperators.contains(field.toUpperCase()) ? field.toUpperCase() : formatField(field));
+            }
         }
 
-        if (builder.getLimit() <= 0) {
-            return query.trim() + ";";
+        if (builder.getLimit() > 0) {
+            query.append(" LIMIT ?");
+
+            if (builder.getOffset() > 0) {
+                query.append(" OFFSET ?");
+            }
         }
 
-        addPart(String.format(" LIMIT %d;", builder.getLimit()));
+        bindLimit(builder);
+
+        return query.append(';').toString();
+    }
+
+    private void bindLimit(QueryBuilder builder)
+    {
+        // The limit and offset are bound as parameters, so every
+        // page of a paginated query shares the same query.
+        if (builder.getLimit() > 0) {
+            bindings.add(builder.getLimit());
 
-        return query;
+            if (builder.getOffset() > 0) {
+                bindings.add(builder.getOffset());
+            }
+        }
     }
 }
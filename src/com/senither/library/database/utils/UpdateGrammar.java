@@ -2,8 +2,11 @@ package com.senither.library.database.utils;
 
 import com.senither.library.database.contacts.Grammar;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 public class UpdateGrammar extends Grammar
 {
@@ -12,13 +15,13 @@ public class UpdateGrammar extends Grammar
 
     public UpdateGrammar()
     {
-        query = "UPDATE ";
+        query.append("UPDATE ");
     }
 
     @Override
     public String format(QueryBuilder builder)
     {
-        addPart(String.format(" `%s` SET", builder.getTable()));
+        query.append(quote(builder.getTable())).append(" SET ");
 
         buildKeyset(builder);
 
@@ -29,39 +32,61 @@ public class UpdateGrammar extends Grammar
         return finalize(builder);
     }
 
+    @Override
+    public List<Object> bind(QueryBuilder builder)
+    {
+        buildKeyset(builder);
+
+        Map<String, Object> values = mergeItems(builder);
+
+        keyset.stream().forEach((key) -> {
+            bindings.add(values.get(key));
+        });
+
+        bindWhereClause(builder);
+
+        return bindings;
+    }
+
     private void buildKeyset(QueryBuilder builder)
     {
-        List<Map<String, Object>> items = builder.getItems();
+        Set<String> keys = new LinkedHashSet<>();
 
-        items.stream().forEach((map) -> {
-            map.keySet().stream().filter((key) -> (!keyset.contains(key))).forEach((key) -> {
-                keyset.add(key);
-            });
+        builder.getItems().stream().forEach((map) -> {
+            keys.addAll(map.keySet());
         });
 
+        keyset.addAll(keys);
     }
 
-    private void buildValues(QueryBuilder builder)
+    private Map<String, Object> mergeItems(QueryBuilder builder)
     {
-        List<Map<String, Object>> items = builder.getItems();
+        Map<String, Object> values = new HashMap<>();
 
-        for (Map<String, Object> row : items) {
+        builder.getItems().stream().forEach((row) -> {
+            values.putAll(row);
+        });
 
-            keyset.stream().forEach((key) -> {
-                addPart((row.containsKey(key)) ? String.format(" %s = '%s', ", formatField(key), row.get(key)) : " NULL, ");
-            });
+        return values;
+    }
 
-            removeLast(2).addPart(" ");
-        }
+    private void buildValues(QueryBuilder builder)
+    {
+        Map<String, Object> values = mergeItems(builder);
+
+        for (int i = 0; i < keyset.size(); i++) {
+            if (i > 0) {
+                query.append(", ");
+            }
 
-        removeLast(1);
+            appendField(keyset.get(i));
+            query.append(" = ").append(parameter(values.get(keyset.get(i))));
+        }
     }
 
     @Override
     protected String finalize(QueryBuilder builder)
     {
-        addPart(";");
-
-        return query;
+        return query.append(';').toString();
     }
 }
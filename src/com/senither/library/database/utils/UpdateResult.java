@@ -0,0 +1,84 @@
+package com.senither.library.database.utils;
+
+import java.util.Collections;
+import java.util.List;
+
+public class UpdateResult
+{
+
+    /**
+     * The amount of rows affected by the statement.
+     *
+     * @var Integer
+     */
+    private final int affectedRows;
+
+    /**
+     * The keys generated by the database for the
+     * inserted rows, in the order they were inserted.
+     *
+     * @var List
+     */
+    private final List<Long> keys;
+
+    /**
+     * Creates a new update result instance.
+     *
+     * @param affectedRows The amount of rows affected by the statement.
+     * @param keys         The generated keys.
+     */
+    public UpdateResult(int affectedRows, List<Long> keys)
+    {
+        this.affectedRows = affectedRows;
+        this.keys = Collections.unmodifiableList(keys);
+    }
+
+    /**
+     * Returns the amount of rows affected by the statement.
+     *
+     * @return Integer
+     */
+    public int getAffectedRows()
+    {
+        return affectedRows;
+    }
+
+    /**
+     * Returns the keys generated by the database for the inserted rows,
+     * in the order they were inserted, the list is always empty for
+     * statements that doesn't insert rows, like UPDATE and DELETE.
+     *
+     * @return List
+     */
+    public List<Long> getKeys()
+    {
+        return keys;
+    }
+
+    /**
+     * Returns the first key generated by the database,
+     * or -1 if the statement didn't generate any keys.
+     *
+     * @return Long
+     */
+    public long getKey()
+    {
+        return keys.isEmpty() ? -1L : keys.get(0);
+    }
+
+    /**
+     * Checks to see if the statement affected any rows.
+     *
+     * @return Boolean
+     */
+    public boolean hasAffectedRows()
+    {
+        return affectedRows > 0;
+    }
+
+    @Override
+    public String toString()
+    {
+        return String.format("UpdateResult{affectedRows=%d, keys=%s}", affectedRows, keys);
+    }
+}
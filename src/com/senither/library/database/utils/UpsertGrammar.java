@@ -0,0 +1,97 @@
+package com.senither.library.database.utils;
+
+import com.senither.library.database.DatabaseType;
+import com.senither.library.exceptions.DatabaseException;
+import java.util.List;
+import java.util.stream.Collectors;
+
+public class UpsertGrammar extends InsertGrammar
+{
+
+    @Override
+    protected String finalize(QueryBuilder builder)
+    {
+        if (keyset.isEmpty()) {
+            throw new DatabaseException("An upsert needs at least one column to insert.");
+        }
+
+        List<String> unique = builder.getUniqueBy();
+        List<String> update = builder.getUpdateColumns();
+
+        if (update == null) {
+            update = keyset.stream().filter((key) -> !unique.contains(key)).collect(Collectors.toList());
+        }
+
+        if (builder.getDialect() == DatabaseType.SQLITE) {
+            buildConflictClause(unique, update);
+        } else {
+            buildDuplicateKeyClause(update);
+        }
+
+        return query.append(';').toString();
+    }
+
+    /**
+     * Builds the MySQL "ON DUPLICATE KEY UPDATE" clause, the new values are
+     * referenced using VALUES(column), which is deprecated as of MySQL
+     * 8.0.20, the row alias form replacing it isn't used since it
+     * isn't supported by older MySQL versions or MariaDB.
+     *
+     * @param update The columns to update on a duplicate row.
+     */
+    private void buildDuplicateKeyClause(List<String> update)
+    {
+        query.append(" ON DUPLICATE KEY UPDATE ");
+
+        // MySQL has no "do nothing" clause, so setting the first
+        // column to itself is used to ignore the duplicate row.
+        if (update.isEmpty()) {
+            query.append(quote(keyset.get(0))).append(" = ").append(quote(keyset.get(0)));
+
+            return;
+        }
+
+        for (int i = 0; i < update.size(); i++) {
+            if (i > 0) {
+                query.append(", ");
+            }
+
+            String column = quote(update.get(i));
+
+            query.append(column).append(" = VALUES(").append(column).append(')');
+        }
+    }
+
+    private void buildConflictClause(List<String> unique, List<String> update)
+    {
+        query.append(" ON CONFLICT (");
+
+        for (int i = 0; i < unique.size(); i++) {
+            if (i > 0) {
+                query.append(", ");
+            }
+
+            query.append(quote(unique.get(i)));
+        }
+
+        query.append(')');
+
+        if (update.isEmpty()) {
+            query.append(" DO NOTHING");
+
+            return;
+        }
+
+        query.append(" DO UPDATE SET ");
+
+        for (int i = 0; i < update.size(); i++) {
+            if (i > 0) {
+                query.append(", ");
+            }
+
+            String column = quote(update.get(i));
+
+            query.append(column).append(" = excluded.").append(column);
+        }
+    }
+}
@@ -0,0 +1,500 @@
+package com.senither.library.database.utils;
+
+import com.senither.library.SenLibrary;
+import com.senither.library.database.contacts.Database;
+import com.senither.library.exceptions.DatabaseException;
+import java.sql.SQLException;
+import java.sql.SQLNonTransientConnectionException;
+import java.sql.SQLTransientConnectionException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+public class WriteBehindBuffer
+{
+
+    /**
+     * Represents our Sen Library instance, this is
+     * used to call other parts of the library.
+     *
+     * @var SenLibrary
+     */
+    private final SenLibrary library;
+
+    /**
+     * Represents the database the buffered writes are flushed to.
+     *
+     * @var Database
+     */
+    private final Database database;
+
+    /**
+     * Represents the pending writes, keyed by the table and primary key
+     * of the row they belong to, repeated writes to the same row
+     * are merged into a single set of column values.
+     *
+     * @var LinkedHashMap
+     */
+    private LinkedHashMap<RowKey, Map<String, Object>> pending = new LinkedHashMap<>();
+
+    /**
+     * Represents the amount of times the pending writes to each row has
+     * failed to flush, rows are only counted once they've failed on
+     * their own, while the database could be reached.
+     *
+     * @var HashMap
+     */
+    private final HashMap<RowKey, Integer> attempts = new HashMap<>();
+
+    /**
+     * Represents the scheduler used to flush the buffer on an interval.
+     *
+     * @var ScheduledExecutorService
+     */
+    private final ScheduledExecutorService scheduler;
+
+    /**
+     * Represents the scheduled flush task.
+     *
+     * @var ScheduledFuture
+     */
+    private ScheduledFuture<?> task;
+
+    /**
+     * Represents the amount of time in milliseconds between each flush.
+     *
+     * @var Long
+     */
+    private long flushInterval = 5000L;
+
+    /**
+     * Represents the amount of pending rows that
+     * will trigger a flush straight away.
+     *
+     * @var Integer
+     */
+    private int flushThreshold = 1000;
+
+    /**
+     * Represents the amount of times the writes to a row can fail to flush
+     * before they're dropped, so a row that can never be written won't
+     * be retried forever, and hold up the rest of the buffer.
+     *
+     * @var Integer
+     */
+    private int maximumAttempts = 3;
+
+    /**
+     * Determines if the buffer has been closed.
+     *
+     * @var Boolean
+     */
+    private volatile boolean closed = false;
+
+    /**
+     * Represents the lock held while the buffer is being flushed, making
+     * sure an older flush can never overwrite the values of a newer one.
+     *
+     * @var Object
+     */
+    private final Object flushLock = new Object();
+
+    /**
+     * Creates a new write-behind buffer for the given database, and
+     * starts flushing the buffer on the default interval.
+     *
+     * @param library  The sen-library instance.
+     * @param database The database to flush the writes to.
+     */
+    public WriteBehindBuffer(SenLibrary library, Database database)
+    {
+        this.library = library;
+        this.database = database;
+
+        scheduler = Executors.newSingleThreadScheduledExecutor((runnable) -> {
+            Thread thread = new Thread(runnable, "SenLibrary-Write-Buffer");
+            thread.setDaemon(true);
+
+            return thread;
+        });
+
+        schedule();
+    }
+
+    /**
+     * Buffers an update to the row with the given primary key, the values are
+     * merged with any pending update to the same row, and are written to
+     * the database the next time the buffer is flushed.
+     *
+     * @param table      The table the row belongs to.
+     * @param primaryKey The name of the primary key column.
+     * @param id         The primary key value of the row.
+     * @param values     The column values to update.
+     * @return WriteBehindBuffer
+     * @throws DatabaseException
+     */
+    public WriteBehindBuffer update(String table, String primaryKey, Object id, Map<String, Object> values) throws DatabaseException
+    {
+        boolean full;
+
+        // The closed state is checked while holding the buffer lock, so every
+        // write accepted before the buffer was closed is flushed by close().
+        synchronized (this) {
+            if (closed) {
+                throw new DatabaseException("The write buffer has been closed.");
+            }
+
+            pending.computeIfAbsent(new RowKey(table, primaryKey, id), (key) -> new LinkedHashMap<>()).putAll(values);
+
+            full = pending.size() >= flushThreshold;
+        }
+
+        if (full) {
+            try {
+                scheduler.execute(this::flushQuietly);
+            } catch (RejectedExecutionException e) {
+                // The buffer is being closed, which flushes the pending writes.
+            }
+        }
+
+        return this;
+    }
+
+    /**
+     * Returns the amount of rows with pending writes.
+     *
+     * @return Integer
+     */
+    public synchronized int size()
+    {
+        return pending.size();
+    }
+
+    /**
+     * Writes every pending update to the database in a single transaction, rows
+     * that update the same columns are sent together as one JDBC batch, if
+     * the database can't be reached, the writes are put back into the
+     * buffer, if the flush fails for any other reason, every row is
+     * written on its own, rows that keeps failing are retried up
+     * to the maximum attempts, before they're dropped.
+     *
+     * @throws SQLException
+     */
+    public void flush() throws SQLException
+    {
+        synchronized (flushLock) {
+            LinkedHashMap<RowKey, Map<String, Object>> writes;
+
+            synchronized (this) {
+                if (pending.isEmpty()) {
+                    return;
+                }
+
+                writes = pending;
+                pending = new LinkedHashMap<>();
+            }
+
+            Map<String, List<List<Object>>> batches = new LinkedHashMap<>();
+            Map<RowKey, CompiledQuery> queries = new LinkedHashMap<>();
+            Set<String> tables = new HashSet<>();
+
+            for (Map.Entry<RowKey, Map<String, Object>> entry : writes.entrySet()) {
+                RowKey key = entry.getKey();
+                tables.add(key.table);
+
+                // The values are sorted by column name so rows updating the same
+                // columns always compile to the same query, and share a batch.
+                QueryBuilder query = new QueryBuilder().from(key.table).update(new TreeMap<>(entry.getValue())).where(key.primaryKey, key.id);
+                CompiledQuery compiled = query.compile();
+
+                batches.computeIfAbsent(compiled.getQuery(), (sql) -> new ArrayList<>()).add(compiled.getBindings());
+                queries.put(key, compiled);
+            }
+
+            try {
+                database.batch(batches, tables);
+            } catch (SQLException | RuntimeException e) {
+                if (!(e instanceof SQLException) || !isConnectionFailure((SQLException) e)) {
+                    flushRows(writes, queries);
+
+                    return;
+                }
+
+                requeue(writes);
+
+                throw e;
+            }
+
+            synchronized (this) {
+                attempts.keySet().removeAll(writes.keySet());
+            }
+        }
+    }
+
+    /**
+     * Stops the flush timer and writes every pending update to the database,
+     * this should be called when the plugin is disabled, no more
+     * writes can be buffered once the buffer is closed.
+     *
+     * @throws SQLException
+     */
+    public void close() throws SQLException
+    {
+        synchronized (this) {
+            closed = true;
+        }
+
+        scheduler.shutdown();
+
+        flush();
+    }
+
+    /**
+     * Returns the amount of time in milliseconds between each flush.
+     *
+     * @return Long
+     */
+    public long getFlushInterval()
+    {
+        return flushInterval;
+    }
+
+    /**
+     * Sets the amount of time in milliseconds between each flush.
+     *
+     * @param flushInterval The flush interval in milliseconds.
+     * @return WriteBehindBuffer
+     */
+    public synchronized WriteBehindBuffer setFlushInterval(long flushInterval)
+    {
+        if (flushInterval < 1) {
+            throw new DatabaseException("The flush interval must be at least 1 millisecond.");
+        }
+
+        this.flushInterval = flushInterval;
+
+        schedule();
+
+        return this;
+    }
+
+    /**
+     * Returns the amount of pending rows that will trigger a flush.
+     *
+     * @return Integer
+     */
+    public int getFlushThreshold()
+    {
+        return flushThreshold;
+    }
+
+    /**
+     * Sets the amount of pending rows that will trigger a flush.
+     *
+     * @param flushThreshold The flush threshold.
+     * @return WriteBehindBuffer
+     */
+    public synchronized WriteBehindBuffer setFlushThreshold(int flushThreshold)
+    {
+        if (flushThreshold < 1) {
+            throw new DatabaseException("The flush threshold cannot be below 1.");
+        }
+
+        this.flushThreshold = flushThreshold;
+
+        return this;
+    }
+
+    /**
+     * Returns the amount of times the writes to a row can fail to flush before they're dropped.
+     *
+     * @return Integer
+     */
+    public int getMaximumAttempts()
+    {
+        return maximumAttempts;
+    }
+
+    /**
+     * Sets the amount of times the writes to a row can fail to flush before they're dropped.
+     *
+     * @param maximumAttempts The maximum amount of attempts.
+     * @return WriteBehindBuffer
+     */
+    public synchronized WriteBehindBuffer setMaximumAttempts(int maximumAttempts)
+    {
+        if (maximumAttempts < 1) {
+            throw new DatabaseException("The maximum attempts cannot be below 1.");
+        }
+
+        this.maximumAttempts = maximumAttempts;
+
+        return this;
+    }
+
+    /**
+     * Schedules the flush task using the current flush
+     * interval, replacing the previous task.
+     */
+    private synchronized void schedule()
+    {
+        if (task != null) {
+            task.cancel(false);
+        }
+
+        task = scheduler.scheduleWithFixedDelay(this::flushQuietly, flushInterval, flushInterval, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Flushes the buffer, logging the error if the flush fails.
+     */
+    private void flushQuietly()
+    {
+        try {
+            flush();
+        } catch (SQLException | RuntimeException e) {
+            library.getLogger().error("Database - Failed to flush the write buffer, the writes will be retried, Exception: {0}", e.getMessage());
+        }
+    }
+
+    /**
+     * Writes every row on its own after a flush failed, so the rows that can't be
+     * written doesn't hold up the rest, rows that fails are put back into the
+     * buffer, until they've failed the maximum amount of attempts, at which
+     * point they're dropped, and logged along with the reason they failed.
+     *
+     * @param writes  The writes that failed to flush.
+     * @param queries The compiled update query of each row.
+     */
+    private void flushRows(LinkedHashMap<RowKey, Map<String, Object>> writes, Map<RowKey, CompiledQuery> queries)
+    {
+        LinkedHashMap<RowKey, Map<String, Object>> failed = new LinkedHashMap<>();
+        boolean unreachable = false;
+
+        for (Map.Entry<RowKey, CompiledQuery> entry : queries.entrySet()) {
+            RowKey key = entry.getKey();
+            CompiledQuery query = entry.getValue();
+
+            // Once the database can't be reached, the remaining rows are put back as they are.
+            if (unreachable) {
+                failed.put(key, writes.get(key));
+                continue;
+            }
+
+            try {
+                database.batch(Collections.singletonMap(query.getQuery(), Collections.singletonList(query.getBindings())), Collections.singleton(key.table));
+
+                synchronized (this) {
+                    attempts.remove(key);
+                }
+            } catch (SQLException | RuntimeException e) {
+                if (e instanceof SQLException && isConnectionFailure((SQLException) e)) {
+                    failed.put(key, writes.get(key));
+                    unreachable = true;
+                    continue;
+                }
+
+                int attempt;
+                synchronized (this) {
+                    attempt = attempts.merge(key, 1, Integer::sum);
+
+                    if (attempt >= maximumAttempts) {
+                        attempts.remove(key);
+                    }
+                }
+
+                if (attempt < maximumAttempts) {
+                    failed.put(key, writes.get(key));
+                    continue;
+                }
+
+                library.getLogger().error("Database - Dropped the buffered writes to the {0} row where {1} = {2} after {3} failed attempt(s), values: {4}, Exception: {5}",
+                        key.table, key.primaryKey, String.valueOf(key.id), attempt, writes.get(key), e.getMessage());
+            }
+        }
+
+        if (!failed.isEmpty()) {
+            requeue(failed);
+        }
+    }
+
+    /**
+     * Checks to see if the given exception was caused by the database
+     * not being reachable, rather than by the query itself, the pool
+     * reports connections it can't hand out as a transient
+     * connection exception, so they're covered as well.
+     *
+     * @param e The exception to check.
+     * @return Boolean
+     */
+    private boolean isConnectionFailure(SQLException e)
+    {
+        if (e instanceof SQLTransientConnectionException || e instanceof SQLNonTransientConnectionException) {
+            return true;
+        }
+
+        return e.getSQLState() != null && e.getSQLState().startsWith("08");
+    }
+
+    /**
+     * Puts the given writes back into the buffer, writes that has been
+     * buffered since the flush started takes priority, since
+     * they hold the most recent values.
+     *
+     * @param writes The writes to put back.
+     */
+    private synchronized void requeue(LinkedHashMap<RowKey, Map<String, Object>> writes)
+    {
+        LinkedHashMap<RowKey, Map<String, Object>> newer = pending;
+        pending = writes;
+
+        newer.entrySet().stream().forEach((entry) -> {
+            pending.computeIfAbsent(entry.getKey(), (key) -> new LinkedHashMap<>()).putAll(entry.getValue());
+        });
+    }
+
+    private static class RowKey
+    {
+
+        private final String table;
+        private final String primaryKey;
+        private final Object id;
+
+        RowKey(String table, String primaryKey, Object id)
+        {
+            this.table = table;
+            this.primaryKey = primaryKey;
+            this.id = id;
+        }
+
+        @Override
+        public boolean equals(Object obj)
+        {
+            if (!(obj instanceof RowKey)) {
+                return false;
+            }
+
+            RowKey other = (RowKey) obj;
+
+            return table.equals(other.table) && primaryKey.equals(other.primaryKey) && Objects.equals(id, other.id);
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return Objects.hash(table, primaryKey, id);
+        }
+    }
+}
@@ -7,4 +7,9 @@ public class DatabaseException extends RuntimeException
     {
         super(message);
     }
+
+    public DatabaseException(String message, Throwable cause)
+    {
+        super(message, cause);
+    }
 }
@@ -0,0 +1,140 @@
+package com.senither.test;
+
+import com.senither.library.database.utils.QueryBuilder;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+public class GrammarBenchmark
+{
+
+    private static final int ROWS = 500;
+    private static final int COLUMNS = 20;
+    private static final int WARMUP = 200;
+    private static final int ITERATIONS = 500;
+
+    public static void main(String[] args)
+    {
+        List<Map<String, Object>> rows = buildRows();
+
+        String legacy = renderLegacy(rows);
+        String current = renderCurrent(rows);
+
+        if (!legacy.equals(current)) {
+            throw new IllegalStateException("The renderers produced different queries:\n" + legacy + "\n" + current);
+        }
+
+        for (int i = 0; i < WARMUP; i++) {
+            renderLegacy(rows);
+            renderCurrent(rows);
+        }
+
+        long legacyTime = time(() -> renderLegacy(rows));
+        long currentTime = time(() -> renderCurrent(rows));
+
+        System.out.println(String.format("Rendering a %d rows x %d columns insert, %d iterations:", ROWS, COLUMNS, ITERATIONS));
+        System.out.println(String.format(" - Legacy renderer:      %8.3f ms/op", legacyTime / 1000000D / ITERATIONS));
+        System.out.println(String.format(" - Single-pass renderer: %8.3f ms/op", currentTime / 1000000D / ITERATIONS));
+        System.out.println(String.format(" - Speedup:              %8.1fx", (double) legacyTime / currentTime));
+    }
+
+    private static List<Map<String, Object>> buildRows()
+    {
+        List<Map<String, Object>> rows = new ArrayList<>();
+
+        for (int row = 0; row < ROWS; row++) {
+            Map<String, Object> item = new LinkedHashMap<>();
+
+            for (int column = 0; column < COLUMNS; column++) {
+                item.put("column_" + column, row * COLUMNS + column);
+            }
+
+            rows.add(item);
+        }
+
+        return rows;
+    }
+
+    private static long time(Runnable runnable)
+    {
+        long start = System.nanoTime();
+
+        for (int i = 0; i < ITERATIONS; i++) {
+            runnable.run();
+        }
+
+        return System.nanoTime() - start;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static String renderCurrent(List<Map<String, Object>> rows)
+    {
+        Map<String, Object>[] items = (Map<String, Object>[]) new Map<?, ?>[rows.size()];
+
+        return new QueryBuilder().from("benchmark").insert(rows.toArray(items)).toSQL();
+    }
+
+    /**
+     * A copy of the insert renderer as it was before the grammars was rewritten,
+     * every part is appended by trimming and concatenating the entire query.
+     *
+     * @param rows The rows to render.
+     * @return String
+     */
+    private static String renderLegacy(List<Map<String, Object>> rows)
+    {
+        LegacyRenderer renderer = new LegacyRenderer();
+
+        renderer.addPart(String.format(" `%s`", "benchmark"));
+
+        List<String> keyset = new ArrayList<>();
+        rows.stream().forEach((map) -> {
+            map.keySet().stream().filter((key) -> (!keyset.contains(key))).forEach((key) -> {
+                keyset.add(key);
+            });
+        });
+
+        renderer.addPart(" (");
+        keyset.stream().forEach((key) -> {
+            renderer.addPart(String.format("`%s`, ", key));
+        });
+        renderer.removeLast(2).addPart(")");
+
+        renderer.addPart(" VALUES ");
+        for (Map<String, Object> row : rows) {
+            renderer.addPart(" (");
+
+            keyset.stream().forEach((key) -> {
+                renderer.bindings.add(row.get(key));
+                renderer.addPart("?, ");
+            });
+
+            renderer.removeLast(2).addPart("),");
+        }
+        renderer.removeLast(1);
+
+        return renderer.addPart(";").query;
+    }
+
+    private static class LegacyRenderer
+    {
+
+        private String query = "INSERT INTO ";
+        private final List<Object> bindings = new ArrayList<>();
+
+        LegacyRenderer addPart(String part)
+        {
+            query = query.trim() + part;
+
+            return this;
+        }
+
+        LegacyRenderer removeLast(int characters)
+        {
+            query = query.substring(0, query.length() - characters);
+
+            return this;
+        }
+    }
+}